@@ -0,0 +1,67 @@
+package com.monitor.app.benchmark;
+
+import com.monitor.app.controller.DemoController;
+import com.monitor.app.metrics.ApiMetricsAspect;
+import com.monitor.app.metrics.LatencyWindows;
+import com.monitor.app.metrics.SlowRequestRecorder;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API切面开销：直接调用控制器与经过ApiMetricsAspect代理调用的对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiMetricsAspectBenchmark {
+
+    @Param({"true", "false"})
+    public boolean meterCache;
+
+    @Param({"true", "false"})
+    public boolean latencyWindows;
+
+    private DemoController bare;
+    private DemoController proxied;
+
+    @Setup
+    public void setup() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        bare = new DemoController();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new DemoController());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ApiMetricsAspect(registry, meterCache,
+                new LatencyWindows(latencyWindows, 100, 60000),
+                new SlowRequestRecorder(true, 1000, 10, 300, 5, 30, 100)));
+        proxied = factory.getProxy();
+    }
+
+    @Benchmark
+    public Map<String, Object> bareController() {
+        return bare.status();
+    }
+
+    @Benchmark
+    public Map<String, Object> aspectWrappedController() {
+        return proxied.status();
+    }
+}
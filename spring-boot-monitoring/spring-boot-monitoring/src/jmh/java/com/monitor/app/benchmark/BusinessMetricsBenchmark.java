@@ -0,0 +1,63 @@
+package com.monitor.app.benchmark;
+
+import com.monitor.app.metrics.BusinessMetrics;
+import com.monitor.app.metrics.OperationType;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 业务计数器递增开销，线程数由MetricsBenchmarkRunner在1~64之间扫描
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusinessMetricsBenchmark {
+
+    private BusinessMetrics businessMetrics;
+
+    @Setup
+    public void setup() {
+        businessMetrics = new BusinessMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT),
+                                              new String[]{"refund"}, 20);
+    }
+
+    @Benchmark
+    public void recordLogin() {
+        businessMetrics.recordLogin();
+    }
+
+    @Benchmark
+    public void recordTransaction() {
+        businessMetrics.recordTransaction();
+    }
+
+    @Benchmark
+    public void recordOperationByType() {
+        businessMetrics.recordOperation(OperationType.TRANSACTION, 1);
+    }
+
+    @Benchmark
+    public void recordOperationByName() {
+        businessMetrics.recordOperation("refund", 1);
+    }
+
+    @Benchmark
+    public void incrementActiveUsers() {
+        businessMetrics.incrementActiveUsers();
+    }
+}
@@ -0,0 +1,52 @@
+package com.monitor.app.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 基准测试入口：运行全部指标基准测试并附带GC分配率报告，
+ * 业务计数器基准测试按1~64线程分别运行，结果输出到 target/jmh 目录。
+ * 额外参数按JMH命令行格式传入，例如 -Djmh.args="-wi 1 -i 2"
+ */
+public class MetricsBenchmarkRunner {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        File outputDir = new File("target/jmh");
+        outputDir.mkdirs();
+
+        // 单线程基准测试：切面开销、Gauge读取、Prometheus序列化
+        new Runner(baseOptions(commandLine)
+                .include(ApiMetricsAspectBenchmark.class.getSimpleName())
+                .include(SystemMetricsBenchmark.class.getSimpleName())
+                .include(PrometheusScrapeBenchmark.class.getSimpleName())
+                .result(new File(outputDir, "metrics.json").getPath())
+                .build()).run();
+
+        // 计数器递增在不同并发度下的开销
+        for (int threads : THREAD_COUNTS) {
+            new Runner(baseOptions(commandLine)
+                    .include(BusinessMetricsBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .result(new File(outputDir, "business-t" + threads + ".json").getPath())
+                    .build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder baseOptions(CommandLineOptions commandLine) {
+        return new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON);
+    }
+}
@@ -0,0 +1,68 @@
+package com.monitor.app.benchmark;
+
+import com.monitor.app.metrics.CachedPrometheusScrapeEndpoint;
+import com.monitor.app.metrics.PrometheusScrapeCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.TextOutputFormat;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/prometheus 完整序列化开销，按序列数量参数化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusScrapeBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int series;
+
+    private PrometheusScrapeEndpoint endpoint;
+    private PrometheusScrapeEndpoint cachedEndpoint;
+
+    @Setup
+    public void setup() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().commonTags("application", "spring-boot-monitoring");
+        for (int i = 0; i < series; i++) {
+            Counter.builder("benchmark.series")
+                   .tag("api", "BenchmarkController.api" + (i % 100))
+                   .tag("index", String.valueOf(i))
+                   .register(registry)
+                   .increment(i);
+        }
+        endpoint = new PrometheusScrapeEndpoint(registry.getPrometheusRegistry());
+        // 缓存窗口远大于测量时长，测得的是命中缓存时的开销
+        PrometheusScrapeCache cache = new PrometheusScrapeCache(registry.getPrometheusRegistry(), registry, 3_600_000);
+        cachedEndpoint = new CachedPrometheusScrapeEndpoint(registry.getPrometheusRegistry(), cache);
+    }
+
+    @Benchmark
+    public WebEndpointResponse<String> scrape() {
+        return endpoint.scrape(TextOutputFormat.CONTENT_TYPE_004, null);
+    }
+
+    @Benchmark
+    public WebEndpointResponse<String> cachedScrape() {
+        return cachedEndpoint.scrape(TextOutputFormat.CONTENT_TYPE_004, null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.monitor.app.benchmark;
+
+import com.monitor.app.metrics.SystemMetrics;
+import com.monitor.app.startup.DeferredInitializer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SystemMetrics注册的各个Gauge在一次采集中的读取开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SystemMetricsBenchmark {
+
+    private Gauge[] gauges;
+
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SystemMetrics(registry, new DeferredInitializer(registry, false)).init();
+        gauges = registry.getMeters().stream()
+                         .filter(meter -> meter instanceof Gauge)
+                         .toArray(Gauge[]::new);
+    }
+
+    @Benchmark
+    public void readAllGauges(Blackhole blackhole) {
+        for (Gauge gauge : gauges) {
+            blackhole.consume(gauge.value());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.monitor.app.loadgen;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 压测入口：按--levels给出的各个负载等级依次施压，输出吞吐量-延迟曲线
+ * 开环模式下等级为每秒请求数，闭环模式下为并发数。例如：
+ * mvn -Ploadgen test-compile exec:exec -Dloadgen.args="--mode=open --levels=20,50,100 --paths=/api/hello,/api/logs"
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        // HttpURLConnection默认每个目标只保留5个空闲连接，超出的连接用完即关闭，高并发时会反复建连
+        System.setProperty("http.maxConnections", String.valueOf(options.maxInFlight));
+
+        System.out.printf(Locale.ROOT, "压测 %s，模式 %s，等级 %s，接口 %s，每级预热 %ds + 采样 %ds%n",
+                options.baseUrl, options.mode, options.levels, options.paths, options.warmupSeconds, options.durationSeconds);
+        LoadReport report = new LoadReport(options);
+        try (LoadRun run = new LoadRun(options)) {
+            for (int level : options.levels) {
+                LoadRun.StepResult step = run.run(level);
+                report.add(step);
+                System.out.printf(Locale.ROOT, "  等级 %d：%.1f 请求/秒，p99 %.2fms，错误 %d，拒绝 %d%n", level,
+                        step.achievedRps(), step.corrected.getValueAtPercentile(99) / 1000.0, step.errors, step.rejected);
+            }
+        }
+        report.print(System.out);
+        Path curve = report.write();
+        System.out.println("报告已写入 " + curve.toAbsolutePath());
+    }
+}
@@ -0,0 +1,66 @@
+package com.monitor.app.loadgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行格式为--key=value
+ */
+final class LoadOptions {
+
+    enum Mode {
+        /** 固定到达速率，请求按计划时间发出，不等待前一个请求完成 */
+        OPEN,
+        /** 固定并发数，每个工作线程收到响应后立即发下一个请求 */
+        CLOSED
+    }
+
+    final String baseUrl;
+    final Mode mode;
+    final List<Integer> levels;
+    final List<String> paths;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final int timeoutMs;
+    final int maxInFlight;
+    final String outputDir;
+
+    private LoadOptions(Map<String, String> args) {
+        this.baseUrl = trimSlash(args.getOrDefault("url", "http://localhost:8080"));
+        this.mode = Mode.valueOf(args.getOrDefault("mode", "open").toUpperCase());
+        this.levels = parseInts(args.getOrDefault("levels", mode == Mode.OPEN ? "10,20,50,100,200" : "1,2,4,8,16,32"));
+        this.paths = Arrays.asList(args.getOrDefault("paths", "/api/hello,/api/status,/api/logs").split(","));
+        this.warmupSeconds = Integer.parseInt(args.getOrDefault("warmup", "5"));
+        this.durationSeconds = Integer.parseInt(args.getOrDefault("duration", "20"));
+        this.timeoutMs = Integer.parseInt(args.getOrDefault("timeout-ms", "10000"));
+        this.maxInFlight = Integer.parseInt(args.getOrDefault("max-in-flight", "500"));
+        this.outputDir = args.getOrDefault("out", "target/loadgen");
+    }
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("参数格式应为--key=value: " + arg);
+            }
+            int index = arg.indexOf('=');
+            values.put(arg.substring(2, index), arg.substring(index + 1));
+        }
+        return new LoadOptions(values);
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            result.add(Integer.parseInt(item.trim()));
+        }
+        return result;
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
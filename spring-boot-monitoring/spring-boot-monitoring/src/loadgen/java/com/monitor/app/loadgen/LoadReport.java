@@ -0,0 +1,168 @@
+package com.monitor.app.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 吞吐量-延迟曲线报告
+ * 每个负载等级一行：客户端看到的吞吐量和延迟分位数（校正后及未校正的服务时间），
+ * 以及正式阶段前后服务端ApiMetricsAspect、Tomcat请求线程池和JVM指标的差值；另输出按API拆分的服务端统计
+ */
+final class LoadReport {
+
+    private static final String HEADER = "mode,level,offered_rps,achieved_rps,requests,errors,rejected,"
+            + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms,service_p50_ms,service_p99_ms,"
+            + "server_calls,server_mean_ms,server_errors,thread_wait_mean_ms,executor_saturated,process_cpu,client_cpu,gc_pause_ms,gc_count,"
+            + "alloc_mb_s,heap_used_mb,live_threads,saturated";
+
+    private final LoadOptions options;
+    private final List<LoadRun.StepResult> steps = new ArrayList<>();
+    private final List<Row> rows = new ArrayList<>();
+    private final List<String> apiRows = new ArrayList<>();
+
+    LoadReport(LoadOptions options) {
+        this.options = options;
+    }
+
+    void add(LoadRun.StepResult step) {
+        boolean saturated = isSaturated(step);
+        steps.add(step);
+
+        PrometheusSnapshot before = step.before;
+        PrometheusSnapshot after = step.after;
+        double seconds = step.elapsedNanos / 1e9;
+        double serverCalls = delta(before, after, "api_response_time_seconds_count");
+        double serverSeconds = delta(before, after, "api_response_time_seconds_sum");
+        double waitCount = delta(before, after, "tomcat_executor_queue_wait_seconds_count");
+        double waitSeconds = delta(before, after, "tomcat_executor_queue_wait_seconds_sum");
+        Histogram corrected = step.corrected;
+        Histogram service = step.service;
+        double serverMeanMs = serverCalls > 0 ? serverSeconds * 1000 / serverCalls : 0;
+        double processCpu = after.sum("process_cpu_usage");
+        String csv = String.format(Locale.ROOT,
+                "%s,%d,%s,%.1f,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.0f,%.2f,%.0f,%.2f,%.0f,%.3f,%.3f,%.1f,%.0f,%.1f,%.1f,%.0f,%s",
+                step.mode.name().toLowerCase(Locale.ROOT), step.level,
+                step.mode == LoadOptions.Mode.OPEN ? String.valueOf(step.level) : "",
+                step.achievedRps(), step.requests, step.errors, step.rejected,
+                millis(corrected, 50), millis(corrected, 90), millis(corrected, 99), millis(corrected, 99.9),
+                corrected.getMaxValue() / 1000.0, millis(service, 50), millis(service, 99),
+                serverCalls, serverMeanMs,
+                delta(before, after, "api_errors_total"),
+                waitCount > 0 ? waitSeconds * 1000 / waitCount : 0,
+                delta(before, after, "tomcat_executor_saturated_total"),
+                processCpu, step.clientCpu,
+                delta(before, after, "jvm_gc_pause_seconds_sum") * 1000,
+                delta(before, after, "jvm_gc_pause_seconds_count"),
+                seconds > 0 ? delta(before, after, "jvm_gc_memory_allocated_bytes_total") / seconds / (1024 * 1024) : 0,
+                after.sum("jvm_memory_used_bytes", "area=\"heap\"") / (1024 * 1024),
+                after.sum("jvm_threads_live_threads"),
+                saturated);
+        rows.add(new Row(csv, serverMeanMs, processCpu, saturated));
+
+        Map<String, Double> callsBefore = before.byLabel("api_response_time_seconds_count", "api");
+        Map<String, Double> sumBefore = before.byLabel("api_response_time_seconds_sum", "api");
+        Map<String, Double> errorsBefore = before.byLabel("api_errors_total", "api");
+        Map<String, Double> sumAfter = after.byLabel("api_response_time_seconds_sum", "api");
+        Map<String, Double> errorsAfter = after.byLabel("api_errors_total", "api");
+        after.byLabel("api_response_time_seconds_count", "api").forEach((api, calls) -> {
+            double count = calls - callsBefore.getOrDefault(api, 0.0);
+            if (count <= 0) {
+                return;
+            }
+            double sum = sumAfter.getOrDefault(api, 0.0) - sumBefore.getOrDefault(api, 0.0);
+            double errors = errorsAfter.getOrDefault(api, 0.0) - errorsBefore.getOrDefault(api, 0.0);
+            apiRows.add(String.format(Locale.ROOT, "%s,%d,%s,%.0f,%.0f,%.2f",
+                    step.mode.name().toLowerCase(Locale.ROOT), step.level, api, count, errors, sum * 1000 / count));
+        });
+    }
+
+    /**
+     * 开环：实际吞吐量低于目标的95%，或p99超过第一个等级的10倍；闭环：增加并发后吞吐量提升不足5%
+     */
+    private boolean isSaturated(LoadRun.StepResult step) {
+        if (step.mode == LoadOptions.Mode.OPEN) {
+            double baselineP99 = steps.isEmpty() ? Double.NaN : steps.get(0).corrected.getValueAtPercentile(99);
+            return step.achievedRps() < step.level * 0.95
+                    || (!Double.isNaN(baselineP99) && step.corrected.getValueAtPercentile(99) > baselineP99 * 10);
+        }
+        if (steps.isEmpty()) {
+            return false;
+        }
+        LoadRun.StepResult previous = steps.get(steps.size() - 1);
+        return step.level > previous.level && step.achievedRps() < previous.achievedRps() * 1.05;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.printf(Locale.ROOT, "%-6s %6s %9s %9s %7s %7s %9s %9s %9s %9s %9s %6s %6s %s%n",
+                "mode", "level", "offered", "achieved", "errors", "reject", "p50(ms)", "p99(ms)", "p99.9(ms)",
+                "svc p99", "srv mean", "cpu", "client", "saturated");
+        for (int i = 0; i < steps.size(); i++) {
+            LoadRun.StepResult step = steps.get(i);
+            Row row = rows.get(i);
+            out.printf(Locale.ROOT, "%-6s %6d %9s %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %6.3f %6.3f %s%n",
+                    step.mode.name().toLowerCase(Locale.ROOT), step.level,
+                    step.mode == LoadOptions.Mode.OPEN ? String.valueOf(step.level) : "-", step.achievedRps(),
+                    step.errors, step.rejected, millis(step.corrected, 50), millis(step.corrected, 99),
+                    millis(step.corrected, 99.9), millis(step.service, 99), row.serverMeanMs, row.processCpu,
+                    step.clientCpu, row.saturated);
+        }
+        out.println("校正后的延迟（p50/p99/p99.9）包含请求因客户端或服务端排队而延后发出的时间；svc p99为从实际发出到收到响应的时间");
+    }
+
+    Path write() throws IOException {
+        Path directory = Paths.get(options.outputDir);
+        Files.createDirectories(directory);
+        String name = "loadgen-" + options.mode.name().toLowerCase(Locale.ROOT) + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path curve = directory.resolve(name + ".csv");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(curve, StandardCharsets.UTF_8))) {
+            writer.println(HEADER);
+            rows.forEach(row -> writer.println(row.csv));
+        }
+        try (PrintWriter writer = new PrintWriter(
+                Files.newBufferedWriter(directory.resolve(name + "-apis.csv"), StandardCharsets.UTF_8))) {
+            writer.println("mode,level,api,calls,errors,mean_ms");
+            apiRows.forEach(writer::println);
+        }
+        return curve;
+    }
+
+    /**
+     * 一个负载等级的CSV行，以及控制台输出用到的已计算值（不再从CSV行按列位置取回）
+     */
+    private static final class Row {
+        final String csv;
+        final double serverMeanMs;
+        final double processCpu;
+        final boolean saturated;
+
+        Row(String csv, double serverMeanMs, double processCpu, boolean saturated) {
+            this.csv = csv;
+            this.serverMeanMs = serverMeanMs;
+            this.processCpu = processCpu;
+            this.saturated = saturated;
+        }
+    }
+
+    private static double delta(PrometheusSnapshot before, PrometheusSnapshot after, String name) {
+        return after.sum(name) - before.sum(name);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() > 0 ? histogram.getValueAtPercentile(percentile) / 1000.0 : 0;
+    }
+}
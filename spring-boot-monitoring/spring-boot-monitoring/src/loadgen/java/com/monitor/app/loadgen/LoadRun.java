@@ -0,0 +1,250 @@
+package com.monitor.app.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 执行单个负载等级：先预热，再在正式阶段前后各采集一次服务端指标
+ * 开环模式下延迟从计划发送时间算起，发送线程落后或请求排队的时间都计入延迟，避免协同遗漏；
+ * 在客户端排队超过超时时间仍未发出的请求按超时计入错误，每个等级结束时等待所有已计划的请求完成或超时后才采集指标。
+ * 闭环模式下每个工作线程等上一个响应返回后才发下一个请求，没有计划发送时间，延迟即响应时间
+ */
+final class LoadRun implements AutoCloseable {
+
+    private final LoadOptions options;
+    private final List<URL> urls = new ArrayList<>();
+    private final ExecutorService openLoopPool;
+    private final com.sun.management.OperatingSystemMXBean clientOs;
+
+    LoadRun(LoadOptions options) throws IOException {
+        this.options = options;
+        for (String path : options.paths) {
+            urls.add(new URL(options.baseUrl + path.trim()));
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.openLoopPool = Executors.newFixedThreadPool(options.maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "loadgen-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.clientOs = ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean
+                ? (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()
+                : null;
+    }
+
+    StepResult run(int level) throws IOException, InterruptedException {
+        execute(level, options.warmupSeconds);
+
+        PrometheusSnapshot before = PrometheusSnapshot.scrape(options.baseUrl, options.timeoutMs);
+        long clientCpuBefore = clientCpuNanos();
+        Phase measured = execute(level, options.durationSeconds);
+        long clientCpuNanos = clientCpuNanos() - clientCpuBefore;
+        PrometheusSnapshot after = PrometheusSnapshot.scrape(options.baseUrl, options.timeoutMs);
+
+        double clientCpu = clientCpuBefore >= 0 && measured.elapsedNanos > 0
+                ? (double) clientCpuNanos / measured.elapsedNanos / Runtime.getRuntime().availableProcessors()
+                : Double.NaN;
+        return new StepResult(options.mode, level, measured.completed.sum(), measured.errors.sum(),
+                measured.rejected.sum(), measured.elapsedNanos, measured.corrected.getIntervalHistogram(),
+                measured.service.getIntervalHistogram(), clientCpu, before, after);
+    }
+
+    private Phase execute(int level, int seconds) throws InterruptedException {
+        Phase phase = new Phase();
+        if (seconds <= 0) {
+            return phase;
+        }
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        if (options.mode == LoadOptions.Mode.OPEN) {
+            runOpenLoop(phase, level, start, end);
+        } else {
+            runClosedLoop(phase, level, end);
+        }
+        phase.elapsedNanos = Math.max(phase.lastCompletion.get(), end) - start;
+        return phase;
+    }
+
+    private void runOpenLoop(Phase phase, int rate, long start, long end) throws InterruptedException {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(options.timeoutMs);
+        AtomicInteger inFlight = new AtomicInteger();
+        for (long i = 0; ; i++) {
+            long intended = start + i * periodNanos;
+            if (intended >= end) {
+                break;
+            }
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            URL url = urls.get((int) (i % urls.size()));
+            inFlight.incrementAndGet();
+            openLoopPool.execute(() -> {
+                try {
+                    long sent = System.nanoTime();
+                    if (sent - intended > timeoutNanos) {
+                        // 客户端在超时时间内都没能发出，与读超时一样记为错误，延迟取放弃时距计划时间的值
+                        phase.recordTimeout(sent - intended);
+                        return;
+                    }
+                    int status = send(url);
+                    long done = System.nanoTime();
+                    phase.record(status, done - intended, done - sent);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        // 等待所有计划内的请求完成或超时，线程池清空后才采集指标、开始下一个等级；
+        // 正在发送的请求受连接和读超时限制，排队的请求开始执行时超时即放弃，等待时间有上限
+        while (inFlight.get() > 0) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void runClosedLoop(Phase phase, int concurrency, long end) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            int offset = w;
+            Thread worker = new Thread(() -> {
+                for (long i = offset; System.nanoTime() < end; i++) {
+                    URL url = urls.get((int) (i % urls.size()));
+                    long sent = System.nanoTime();
+                    int status = send(url);
+                    long done = System.nanoTime();
+                    phase.record(status, done - sent, done - sent);
+                }
+            }, "loadgen-worker-" + w);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * 发送GET请求并读完响应体，返回状态码，网络错误或超时返回-1
+     */
+    private int send(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(options.timeoutMs);
+            connection.setReadTimeout(options.timeoutMs);
+            int status = connection.getResponseCode();
+            // 读完响应体，连接才能被复用
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (in != null) {
+                try (InputStream body = in) {
+                    byte[] buffer = new byte[8192];
+                    while (body.read(buffer) >= 0) {
+                        // 丢弃响应内容
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private long clientCpuNanos() {
+        return clientOs != null ? clientOs.getProcessCpuTime() : -1;
+    }
+
+    @Override
+    public void close() {
+        openLoopPool.shutdownNow();
+    }
+
+    /**
+     * 一个阶段内的请求统计，延迟以微秒记录
+     */
+    private static final class Phase {
+
+        private final Recorder corrected = new Recorder(3);
+        private final Recorder service = new Recorder(3);
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicLong lastCompletion = new AtomicLong(Long.MIN_VALUE);
+        private long elapsedNanos;
+
+        void record(int status, long correctedNanos, long serviceNanos) {
+            completed.increment();
+            if (status == 429 || status == 503) {
+                rejected.increment();
+            } else if (status < 200 || status >= 400) {
+                errors.increment();
+            }
+            corrected.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(correctedNanos)));
+            service.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(serviceNanos)));
+            lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+        }
+
+        /**
+         * 没有发出的请求只计入校正后的延迟，不计服务时间
+         */
+        void recordTimeout(long correctedNanos) {
+            completed.increment();
+            errors.increment();
+            corrected.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(correctedNanos)));
+            lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+        }
+    }
+
+    /**
+     * 单个负载等级的结果
+     */
+    static final class StepResult {
+
+        final LoadOptions.Mode mode;
+        final int level;
+        final long requests;
+        final long errors;
+        final long rejected;
+        final long elapsedNanos;
+        final Histogram corrected;
+        final Histogram service;
+        final double clientCpu;
+        final PrometheusSnapshot before;
+        final PrometheusSnapshot after;
+
+        StepResult(LoadOptions.Mode mode, int level, long requests, long errors, long rejected, long elapsedNanos,
+                   Histogram corrected, Histogram service, double clientCpu,
+                   PrometheusSnapshot before, PrometheusSnapshot after) {
+            this.mode = mode;
+            this.level = level;
+            this.requests = requests;
+            this.errors = errors;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+            this.corrected = corrected;
+            this.service = service;
+            this.clientCpu = clientCpu;
+            this.before = before;
+            this.after = after;
+        }
+
+        double achievedRps() {
+            return elapsedNanos > 0 ? requests * 1e9 / elapsedNanos : 0;
+        }
+    }
+}
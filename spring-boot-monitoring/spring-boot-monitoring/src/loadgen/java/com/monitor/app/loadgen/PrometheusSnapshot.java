@@ -0,0 +1,109 @@
+package com.monitor.app.loadgen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一次/actuator/prometheus采集的样本，用于计算压测前后服务端指标的差值
+ */
+final class PrometheusSnapshot {
+
+    private static final Pattern SAMPLE = Pattern.compile("^([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{(.*)\\})?\\s+(\\S+)");
+
+    private final List<Sample> samples;
+
+    private PrometheusSnapshot(List<Sample> samples) {
+        this.samples = samples;
+    }
+
+    static PrometheusSnapshot scrape(String baseUrl, int timeoutMs) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/actuator/prometheus").openConnection();
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        List<Sample> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                Matcher matcher = SAMPLE.matcher(line);
+                if (matcher.find()) {
+                    String labels = matcher.group(3) != null ? matcher.group(3) : "";
+                    samples.add(new Sample(matcher.group(1), labels, parseValue(matcher.group(4))));
+                }
+            }
+        }
+        return new PrometheusSnapshot(samples);
+    }
+
+    /**
+     * 同名序列求和，labelFilter不为空时只统计标签中包含该片段的序列，如area="heap"
+     */
+    double sum(String name, String labelFilter) {
+        double total = 0;
+        for (Sample sample : samples) {
+            if (sample.name.equals(name) && (labelFilter == null || sample.labels.contains(labelFilter))) {
+                total += sample.value;
+            }
+        }
+        return total;
+    }
+
+    double sum(String name) {
+        return sum(name, null);
+    }
+
+    /**
+     * 同名序列按指定标签的取值分组求和
+     */
+    Map<String, Double> byLabel(String name, String label) {
+        Pattern labelPattern = Pattern.compile("(?:^|,)" + Pattern.quote(label) + "=\"([^\"]*)\"");
+        Map<String, Double> result = new TreeMap<>();
+        for (Sample sample : samples) {
+            if (!sample.name.equals(name)) {
+                continue;
+            }
+            Matcher matcher = labelPattern.matcher(sample.labels);
+            if (matcher.find()) {
+                result.merge(matcher.group(1), sample.value, Double::sum);
+            }
+        }
+        return result;
+    }
+
+    private static double parseValue(String value) {
+        switch (value) {
+            case "+Inf":
+                return Double.POSITIVE_INFINITY;
+            case "-Inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    private static final class Sample {
+
+        private final String name;
+        private final String labels;
+        private final double value;
+
+        Sample(String name, String labels, double value) {
+            this.name = name;
+            this.labels = labels;
+            this.value = value;
+        }
+    }
+}
@@ -2,13 +2,20 @@ package com.monitor.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
 public class MonitoringApplication {
 
+    // 启动步骤缓冲区容量，超出后的步骤不再记录
+    private static final int STARTUP_STEP_CAPACITY = 10000;
+
     public static void main(String[] args) {
-        SpringApplication.run(MonitoringApplication.class, args);
+        SpringApplication application = new SpringApplication(MonitoringApplication.class);
+        // 记录各启动阶段和Bean初始化的耗时，供/actuator/startup和/actuator/startupreport使用
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 }
@@ -0,0 +1,35 @@
+package com.monitor.app.config;
+
+import com.monitor.app.filter.ConcurrencyLimitFilter;
+import com.monitor.app.health.MemoryHealthIndicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 自适应并发限流配置，只作用于/api/下的业务接口
+ */
+@Configuration
+@ConditionalOnProperty(name = "monitor.concurrency.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            ObjectProvider<MemoryHealthIndicator> memoryHealthIndicator,
+            @Value("${monitor.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${monitor.concurrency.min-limit:2}") int minLimit,
+            @Value("${monitor.concurrency.max-limit:200}") int maxLimit,
+            @Value("${monitor.concurrency.max-groups:50}") int maxGroups,
+            @Value("${monitor.concurrency.memory-pressure-percent:85}") double memoryPressurePercent) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, memoryHealthIndicator.getIfAvailable(),
+                initialLimit, minLimit, maxLimit, maxGroups, memoryPressurePercent);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,35 @@
+package com.monitor.app.config;
+
+import com.monitor.app.jdbc.AcquireTimingDataSource;
+import com.monitor.app.jdbc.ConnectionAcquireMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 连接获取监控配置：包装数据源记录获取连接的等待耗时和超时次数
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    static ConnectionAcquireMetrics connectionAcquireMetrics() {
+        return new ConnectionAcquireMetrics();
+    }
+
+    @Bean
+    static BeanPostProcessor acquireTimingDataSourcePostProcessor(ObjectProvider<ConnectionAcquireMetrics> acquireMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof AcquireTimingDataSource)) {
+                    return new AcquireTimingDataSource((DataSource) bean, acquireMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.monitor.app.config;
+
+import com.monitor.app.filter.JdbcRequestContextFilter;
+import com.monitor.app.jdbc.InstrumentedDataSource;
+import com.monitor.app.jdbc.JdbcStatementMetrics;
+import com.monitor.app.jdbc.RepositoryCallAspect;
+import com.monitor.app.jdbc.SlowQueryEndpoint;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL语句级监控配置：包装数据源、标记Repository调用、按请求检测N+1
+ */
+@Configuration
+@ConditionalOnProperty(name = "monitor.database.statement-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcInstrumentationConfig {
+
+    @Bean
+    static JdbcStatementMetrics jdbcStatementMetrics(
+            @Value("${monitor.database.statement-metrics.max-statements:50}") int maxStatements,
+            @Value("${monitor.database.statement-metrics.percentile-histogram:false}") boolean percentileHistogram,
+            @Value("${monitor.database.statement-metrics.slow-query-ms:200}") long slowQueryMs,
+            @Value("${monitor.database.statement-metrics.slow-query-log-size:100}") int slowQueryLogSize,
+            @Value("${monitor.database.statement-metrics.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        return new JdbcStatementMetrics(maxStatements, percentileHistogram, slowQueryMs, slowQueryLogSize, nPlusOneThreshold);
+    }
+
+    /**
+     * 数据源创建后包装为InstrumentedDataSource；Boot的连接池指标通过DataSourceUnwrapper仍能拿到原始连接池
+     */
+    @Bean
+    static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<JdbcStatementMetrics> jdbcStatementMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource((DataSource) bean, jdbcStatementMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    RepositoryCallAspect repositoryCallAspect() {
+        return new RepositoryCallAspect();
+    }
+
+    @Bean
+    SlowQueryEndpoint slowQueryEndpoint(JdbcStatementMetrics jdbcStatementMetrics) {
+        return new SlowQueryEndpoint(jdbcStatementMetrics);
+    }
+
+    @Bean
+    FilterRegistrationBean<JdbcRequestContextFilter> jdbcRequestContextFilter(JdbcStatementMetrics jdbcStatementMetrics) {
+        FilterRegistrationBean<JdbcRequestContextFilter> registration =
+                new FilterRegistrationBean<>(new JdbcRequestContextFilter(jdbcStatementMetrics));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -1,6 +1,8 @@
 package com.monitor.app.config;
 
+import com.monitor.app.metrics.TagCardinalityGuard;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,4 +14,13 @@ public class MetricsConfig {
     MeterRegistryCustomizer<MeterRegistry> metricsCommonTags() {
         return registry -> registry.config().commonTags("application", "spring-boot-monitoring");
     }
+
+    /**
+     * 标签基数保护，同时作为MeterFilter和MeterBinder注册到所有MeterRegistry
+     */
+    @Bean
+    TagCardinalityGuard tagCardinalityGuard(
+            @Value("${monitor.metrics.cardinality.limits:api.calls:100,api.response.time:100,api.errors:50}") String[] limits) {
+        return new TagCardinalityGuard(TagCardinalityGuard.parseLimits(limits));
+    }
 }
@@ -0,0 +1,60 @@
+package com.monitor.app.config;
+
+import com.monitor.app.filter.PrometheusGzipScrapeFilter;
+import com.monitor.app.metrics.CachedPrometheusScrapeEndpoint;
+import com.monitor.app.metrics.PrometheusScrapeCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prometheus.client.CollectorRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.EndpointId;
+import org.springframework.boot.actuate.endpoint.web.PathMappedEndpoints;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Prometheus采集缓存配置，开启后替换默认的/actuator/prometheus端点
+ */
+@Configuration
+@ConditionalOnProperty(name = "monitor.prometheus.scrape-cache.enabled", havingValue = "true")
+public class PrometheusScrapeConfig {
+
+    @Bean
+    PrometheusScrapeCache prometheusScrapeCache(CollectorRegistry collectorRegistry,
+                                                MeterRegistry meterRegistry,
+                                                @Value("${monitor.prometheus.scrape-cache.interval-ms:5000}") long intervalMs) {
+        return new PrometheusScrapeCache(collectorRegistry, meterRegistry, intervalMs);
+    }
+
+    @Bean
+    PrometheusScrapeEndpoint prometheusEndpoint(CollectorRegistry collectorRegistry,
+                                                PrometheusScrapeCache prometheusScrapeCache) {
+        return new CachedPrometheusScrapeEndpoint(collectorRegistry, prometheusScrapeCache);
+    }
+
+    /**
+     * 过滤器绕过了端点本身，只在prometheus端点开启、通过HTTP暴露且与应用共用端口时注册，
+     * 路径取端点实际映射的路径（包括base-path和path-mapping）
+     */
+    @Bean
+    @ConditionalOnAvailableEndpoint(endpoint = PrometheusScrapeEndpoint.class)
+    @ConditionalOnManagementPort(ManagementPortType.SAME)
+    FilterRegistrationBean<PrometheusGzipScrapeFilter> prometheusGzipScrapeFilter(
+            PrometheusScrapeCache prometheusScrapeCache,
+            PathMappedEndpoints pathMappedEndpoints) {
+        FilterRegistrationBean<PrometheusGzipScrapeFilter> registration =
+                new FilterRegistrationBean<>(new PrometheusGzipScrapeFilter(prometheusScrapeCache));
+        String path = pathMappedEndpoints.getPath(EndpointId.of("prometheus"));
+        if (path != null) {
+            registration.addUrlPatterns(path);
+        } else {
+            registration.setEnabled(false);
+        }
+        return registration;
+    }
+}
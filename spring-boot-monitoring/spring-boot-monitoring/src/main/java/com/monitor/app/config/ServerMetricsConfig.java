@@ -0,0 +1,85 @@
+package com.monitor.app.config;
+
+import com.monitor.app.filter.RequestInFlightFilter;
+import com.monitor.app.server.InstrumentedTomcatExecutor;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 连接层请求监控配置：用记录排队时间的线程池替换Tomcat连接器的请求线程池，并在最外层注册在途请求过滤器
+ */
+@Configuration
+@ConditionalOnProperty(name = "monitor.server.request-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class ServerMetricsConfig {
+
+    /**
+     * 线程数沿用server.tomcat.threads.*配置；线程池由Spring在Web服务器停止后关闭
+     */
+    @Bean
+    InstrumentedTomcatExecutor tomcatRequestExecutor(@Value("${server.port:8080}") int port,
+                                                     @Value("${server.tomcat.threads.min-spare:10}") int minSpareThreads,
+                                                     @Value("${server.tomcat.threads.max:200}") int maxThreads) {
+        return new InstrumentedTomcatExecutor("http-nio-" + port + "-exec-", minSpareThreads, maxThreads);
+    }
+
+    @Bean
+    WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatExecutorCustomizer(InstrumentedTomcatExecutor executor) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(executor);
+            }
+        });
+    }
+
+    @Bean
+    RequestInFlightFilter requestInFlightFilter(@Value("${monitor.server.request-metrics.max-routes:100}") int maxRoutes) {
+        return new RequestInFlightFilter(maxRoutes);
+    }
+
+    @Bean
+    FilterRegistrationBean<RequestInFlightFilter> requestInFlightFilterRegistration(RequestInFlightFilter filter) {
+        FilterRegistrationBean<RequestInFlightFilter> registration = new FilterRegistrationBean<>(filter);
+        // 在Boot的http.server.requests过滤器之前执行
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * 所有单例创建完成后（Web服务器启动前）收集控制器和Actuator端点的路径模式，在途请求过滤器只为这些路由建立指标
+     */
+    @Bean
+    SmartInitializingSingleton requestInFlightRoutes(RequestInFlightFilter filter,
+                                                     ObjectProvider<RequestMappingInfoHandlerMapping> handlerMappings) {
+        return () -> {
+            List<String> patterns = new ArrayList<>();
+            handlerMappings.orderedStream().forEach(mapping -> mapping.getHandlerMethods().keySet()
+                    .forEach(info -> patterns.addAll(info.getPatternValues())));
+            filter.registerRoutes(patterns);
+        };
+    }
+
+    @Bean
+    WebMvcConfigurer dispatchDelayInterceptorConfigurer(RequestInFlightFilter filter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(filter.dispatchInterceptor());
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.monitor.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * 开启spring.main.lazy-initialization（faststart）时仍在启动时创建的Bean：
+     * 本应用的组件（指标注册、后台线程和定时任务）以及MeterRegistry、MeterBinder；
+     * 控制器和框架自动配置的其余Bean在首次使用时才创建
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerMonitorBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (MeterRegistry.class.isAssignableFrom(beanType)
+                || MeterBinder.class.isAssignableFrom(beanType)
+                || beanType.getName().startsWith("com.monitor.app.")
+                && !AnnotatedElementUtils.hasAnnotation(beanType, Controller.class));
+    }
+}
@@ -1,12 +1,18 @@
 package com.monitor.app.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Web配置类，用于配置CORS等Web相关设置
+ * Web配置类，用于配置CORS和消息编码等Web相关设置
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -20,4 +26,23 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .maxAge(3600);
     }
+
+    /**
+     * CBOR编码（application/cbor），与JSON共用spring.jackson.*配置
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile编码（application/x-jackson-smile），重复的字段名和短字符串值以back-reference代替
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                                           .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                                           .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
 }
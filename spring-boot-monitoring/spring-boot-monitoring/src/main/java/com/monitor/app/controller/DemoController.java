@@ -1,13 +1,19 @@
 package com.monitor.app.controller;
 
 import com.monitor.app.metrics.BusinessMetrics;
+import com.monitor.app.service.CpuTaskExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 示例控制器，用于测试API监控功能
@@ -19,6 +25,9 @@ public class DemoController {
     @Autowired
     private BusinessMetrics businessMetrics;
 
+    @Autowired
+    private CpuTaskExecutor cpuTaskExecutor;
+
     @GetMapping("/hello")
     public Map<String, Object> hello() {
         // 记录业务操作
@@ -41,22 +50,25 @@ public class DemoController {
     }
     
     @GetMapping("/simulate-load")
-    public Map<String, Object> simulateLoad() {
-        // 模拟CPU负载
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < 1000) {
-            // 空循环，消耗CPU
-            Math.sqrt(Math.random() * 10000);
-        }
-        
-        // 记录业务指标
-        businessMetrics.incrementPendingTasks();
-        businessMetrics.recordTransaction();
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("message", "负载模拟完成");
-        result.put("duration", System.currentTimeMillis() - startTime);
-        return result;
+    public CompletableFuture<Map<String, Object>> simulateLoad() {
+        // CPU密集型处理交给专用执行器，不占用Tomcat请求线程
+        return cpuTaskExecutor.submit(() -> {
+            // 模拟CPU负载
+            long startTime = System.currentTimeMillis();
+            while (System.currentTimeMillis() - startTime < 1000) {
+                // 空循环，消耗CPU
+                Math.sqrt(Math.random() * 10000);
+            }
+            
+            // 记录业务指标
+            businessMetrics.incrementPendingTasks();
+            businessMetrics.recordTransaction();
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("message", "负载模拟完成");
+            result.put("duration", System.currentTimeMillis() - startTime);
+            return result;
+        });
     }
     
     @GetMapping("/error-test")
@@ -70,4 +82,12 @@ public class DemoController {
         result.put("message", "没有错误发生");
         return result;
     }
+    
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, Object> handleRejected(RejectedExecutionException e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "服务繁忙，请稍后重试");
+        return result;
+    }
 }
@@ -1,12 +1,25 @@
 package com.monitor.app.controller;
 
 import com.monitor.app.entity.LogRecord;
+import com.monitor.app.repository.LogActionCount;
+import com.monitor.app.repository.LogBucketCount;
+import com.monitor.app.repository.LogSummary;
+import com.monitor.app.service.LogExporter;
 import com.monitor.app.service.LogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,14 +31,141 @@ import java.util.Map;
 @RequestMapping("/api/logs")
 public class LogController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private LogExporter logExporter;
+
     @GetMapping
     public List<LogRecord> getAllLogs() {
         return logService.getAllLogs();
     }
     
+    /**
+     * 按主键查询单条日志，不存在时返回404
+     */
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<LogRecord> getLog(@PathVariable Long id) {
+        return ResponseEntity.of(logService.getLog(id));
+    }
+    
+    /**
+     * 游标分页查询，sort=id按主键翻页，sort=timestamp按时间翻页
+     * 响应中的next字段即下一页的游标参数，为空表示已到末尾
+     */
+    @GetMapping("/page")
+    public Map<String, Object> getLogPage(@RequestParam(defaultValue = "id") String sort,
+                                          @RequestParam(required = false) Long afterId,
+                                          @RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTimestamp,
+                                          @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        boolean byTimestamp = "timestamp".equalsIgnoreCase(sort);
+        List<LogRecord> logs = byTimestamp
+                ? logService.getLogsAfterTimestamp(afterTimestamp, afterId, pageSize)
+                : logService.getLogsAfterId(afterId, pageSize);
+
+        Map<String, Object> next = null;
+        if (logs.size() == pageSize) {
+            LogRecord last = logs.get(logs.size() - 1);
+            next = new HashMap<>();
+            next.put("afterId", last.getId());
+            if (byTimestamp) {
+                next.put("afterTimestamp", last.getTimestamp());
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", logs);
+        response.put("size", logs.size());
+        response.put("next", next);
+        return response;
+    }
+    
+    /**
+     * 流式导出全部日志：边从数据库游标读取边写入响应，不在内存中聚合整张表
+     * 编码按Accept头在JSON、CBOR和Smile之间协商，layout=columnar时按列块输出，Accept-Encoding包含gzip时压缩响应
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamLogs(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                            @RequestParam(defaultValue = "rows") String layout) {
+        LogExporter.Format format = logExporter.negotiate(accept);
+        boolean gzip = logExporter.useGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(logExporter.export(format, logExporter.layout(layout), gzip));
+    }
+    
+    /**
+     * 时间范围查询，返回日志摘要；from/to缺省时查询最近一小时（见defaultEnd）
+     */
+    @GetMapping("/range")
+    public List<LogSummary> getLogsInRange(@RequestParam(required = false) String action,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                           @RequestParam(defaultValue = "100") int size) {
+        LocalDateTime end = to != null ? to : defaultEnd();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return logService.getLogSummaries(action, start, end, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+    
+    /**
+     * 统计时间范围内指定操作类型的日志数量，例如最近一小时的DELETE次数
+     */
+    @GetMapping("/stats/count")
+    public Map<String, Object> countLogs(@RequestParam String action,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : defaultEnd();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("action", action);
+        response.put("from", start);
+        response.put("to", end);
+        response.put("count", logService.countLogs(action, start, end));
+        return response;
+    }
+    
+    /**
+     * 按操作类型分组统计时间范围内的日志数量
+     */
+    @GetMapping("/stats/actions")
+    public List<LogActionCount> countLogsByAction(@RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : defaultEnd();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return logService.countLogsByAction(start, end);
+    }
+    
+    /**
+     * 按操作类型和时间桶分组统计时间范围内的日志数量，bucketSeconds为时间桶宽度
+     */
+    @GetMapping("/stats/buckets")
+    public List<LogBucketCount> countLogsByBucket(@RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestParam(defaultValue = "60") long bucketSeconds) {
+        LocalDateTime end = to != null ? to : defaultEnd();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return logService.countLogsByBucket(start, end, Math.max(1, bucketSeconds));
+    }
+    
     @GetMapping("/generate")
     public Map<String, Object> generateLog() {
         LogRecord log = logService.createRandomLog();
@@ -35,4 +175,13 @@ public class LogController {
         response.put("log", log);
         return response;
     }
+
+    /**
+     * 缺省的查询截止时间：当前时间向上取整到下一分钟
+     * 查询结果按参数缓存，截止时间直接取now()时每个请求的缓存键都不同；取整后同一分钟内的请求共用缓存，
+     * 截止时间晚于当前时间不会漏掉新写入的日志（写入时查询缓存会被清空）
+     */
+    private static LocalDateTime defaultEnd() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+    }
 }
@@ -0,0 +1,66 @@
+package com.monitor.app.controller;
+
+import com.monitor.app.export.RemoteWriteCodec;
+import com.monitor.app.export.RemoteWriteSeries;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地remote-write接收桩，用于在没有Prometheus时验证推送导出
+ * 解码收到的请求并统计请求数、序列数和字节数，GET返回统计和最近一次请求中的部分序列
+ */
+@RestController
+@RequestMapping("/api/remote-write/stub")
+@ConditionalOnProperty(name = "monitor.export.remote-write.stub-receiver.enabled", havingValue = "true")
+public class RemoteWriteStubController {
+
+    private static final int MAX_RECENT_SERIES = 20;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong series = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile List<RemoteWriteSeries> recent = new ArrayList<>();
+
+    @PostMapping
+    public ResponseEntity<Void> receive(@RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String encoding,
+                                        @RequestBody byte[] body) {
+        if (!"snappy".equals(encoding)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<RemoteWriteSeries> decoded;
+        try {
+            decoded = RemoteWriteCodec.decode(body);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        requests.incrementAndGet();
+        series.addAndGet(decoded.size());
+        bytes.addAndGet(body.length);
+        recent = decoded.subList(0, Math.min(decoded.size(), MAX_RECENT_SERIES));
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("requests", requests.get());
+        result.put("series", series.get());
+        result.put("bytes", bytes.get());
+        result.put("recent", recent);
+        return result;
+    }
+}
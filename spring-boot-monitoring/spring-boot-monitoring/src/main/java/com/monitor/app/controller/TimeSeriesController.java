@@ -0,0 +1,75 @@
+package com.monitor.app.controller;
+
+import com.monitor.app.tsdb.TimeSeriesStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地时序存储查询接口
+ */
+@RestController
+@RequestMapping("/api/tsdb")
+@ConditionalOnProperty(name = "monitor.tsdb.enabled", havingValue = "true")
+public class TimeSeriesController {
+
+    @Autowired
+    private TimeSeriesStore timeSeriesStore;
+
+    /**
+     * 列出序列，可按指标名称过滤
+     */
+    @GetMapping("/series")
+    public List<Map<String, Object>> listSeries(@RequestParam(required = false) String name) {
+        return timeSeriesStore.listSeries(name);
+    }
+
+    /**
+     * 按指标名称和标签查询时间范围内的样本，tags格式为key:value,key:value，时间范围缺省为最近一小时
+     * 每个样本为[毫秒时间戳, 值]
+     */
+    @GetMapping("/query")
+    public List<Map<String, Object>> query(@RequestParam String name,
+                                           @RequestParam(required = false) String tags,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return timeSeriesStore.query(name, parseTags(tags), toEpochMilli(start), toEpochMilli(end));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return timeSeriesStore.stats();
+    }
+
+    private static Map<String, String> parseTags(String tags) {
+        Map<String, String> result = new HashMap<>();
+        if (tags == null || tags.isEmpty()) {
+            return result;
+        }
+        for (String pair : tags.split(",")) {
+            int index = pair.indexOf(':');
+            if (index > 0) {
+                result.put(pair.substring(0, index).trim(), pair.substring(index + 1).trim());
+            }
+        }
+        return result;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
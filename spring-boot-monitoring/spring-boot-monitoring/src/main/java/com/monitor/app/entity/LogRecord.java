@@ -6,17 +6,26 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import java.time.LocalDateTime;
 
 /**
  * 示例实体类，用于测试数据库监控功能
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_log_record_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_log_record_action_timestamp", columnList = "action, timestamp")
+})
 @Data
 public class LogRecord {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // 使用池化序列分配主键，IDENTITY会使Hibernate无法批量插入
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_record_seq")
+    @SequenceGenerator(name = "log_record_seq", sequenceName = "log_record_seq", allocationSize = 50)
     private Long id;
     
     private String action;
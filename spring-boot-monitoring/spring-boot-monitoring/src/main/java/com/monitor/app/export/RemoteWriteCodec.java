@@ -0,0 +1,240 @@
+package com.monitor.app.export;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prometheus remote-write 1.0 的编解码
+ * 手工编码prometheus.WriteRequest的protobuf结构，只用到其中的TimeSeries/Label/Sample字段，再做snappy块压缩：
+ * <pre>
+ * WriteRequest { repeated TimeSeries timeseries = 1; }
+ * TimeSeries   { repeated Label labels = 1; repeated Sample samples = 2; }
+ * Label        { string name = 1; string value = 2; }
+ * Sample       { double value = 1; int64 timestamp = 2; }
+ * </pre>
+ */
+public final class RemoteWriteCodec {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private RemoteWriteCodec() {
+    }
+
+    /**
+     * 编码并压缩为remote-write请求体
+     */
+    public static byte[] encode(List<RemoteWriteSeries> series) throws IOException {
+        ProtoWriter request = new ProtoWriter();
+        ProtoWriter timeSeries = new ProtoWriter();
+        ProtoWriter field = new ProtoWriter();
+        for (RemoteWriteSeries item : series) {
+            timeSeries.reset();
+            for (Map.Entry<String, String> label : item.getLabels().entrySet()) {
+                field.reset();
+                field.writeString(1, label.getKey());
+                field.writeString(2, label.getValue());
+                timeSeries.writeMessage(1, field);
+            }
+            field.reset();
+            field.writeDouble(1, item.getValue());
+            field.writeVarint(2, item.getTimestamp());
+            timeSeries.writeMessage(2, field);
+            request.writeMessage(1, timeSeries);
+        }
+        return Snappy.compress(request.toByteArray());
+    }
+
+    /**
+     * 解压并解码remote-write请求体，每个TimeSeries只取第一个样本
+     */
+    public static List<RemoteWriteSeries> decode(byte[] body) throws IOException {
+        ProtoReader request = new ProtoReader(Snappy.uncompress(body));
+        List<RemoteWriteSeries> result = new ArrayList<>();
+        while (request.hasMore()) {
+            int tag = (int) request.readVarint();
+            if (tag >>> 3 != 1) {
+                request.skip(tag & 7);
+                continue;
+            }
+            ProtoReader timeSeries = request.readMessage();
+            Map<String, String> labels = new LinkedHashMap<>();
+            double value = Double.NaN;
+            long timestamp = 0;
+            boolean sampleRead = false;
+            while (timeSeries.hasMore()) {
+                int seriesTag = (int) timeSeries.readVarint();
+                if (seriesTag >>> 3 == 1) {
+                    ProtoReader label = timeSeries.readMessage();
+                    String name = null;
+                    String labelValue = null;
+                    while (label.hasMore()) {
+                        int labelTag = (int) label.readVarint();
+                        if (labelTag >>> 3 == 1) {
+                            name = label.readString();
+                        } else if (labelTag >>> 3 == 2) {
+                            labelValue = label.readString();
+                        } else {
+                            label.skip(labelTag & 7);
+                        }
+                    }
+                    labels.put(name, labelValue);
+                } else if (seriesTag >>> 3 == 2 && !sampleRead) {
+                    ProtoReader sample = timeSeries.readMessage();
+                    while (sample.hasMore()) {
+                        int sampleTag = (int) sample.readVarint();
+                        if (sampleTag >>> 3 == 1) {
+                            value = Double.longBitsToDouble(sample.readFixed64());
+                        } else if (sampleTag >>> 3 == 2) {
+                            timestamp = sample.readVarint();
+                        } else {
+                            sample.skip(sampleTag & 7);
+                        }
+                    }
+                    sampleRead = true;
+                } else {
+                    timeSeries.skip(seriesTag & 7);
+                }
+            }
+            result.add(new RemoteWriteSeries(labels, value, timestamp));
+        }
+        return result;
+    }
+
+    private static final class ProtoWriter extends ByteArrayOutputStream {
+
+        void writeTag(int field, int wireType) {
+            writeRawVarint((field << 3) | wireType);
+        }
+
+        void writeRawVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeVarint(int field, long value) {
+            writeTag(field, WIRE_VARINT);
+            writeRawVarint(value);
+        }
+
+        void writeDouble(int field, double value) {
+            writeTag(field, WIRE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                write((int) (bits >>> (8 * i)) & 0xFF);
+            }
+        }
+
+        void writeString(int field, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeRawVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeMessage(int field, ProtoWriter message) {
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeRawVarint(message.size());
+            write(message.buf, 0, message.size());
+        }
+    }
+
+    private static final class ProtoReader {
+
+        private final byte[] data;
+        private int position;
+        private final int limit;
+
+        ProtoReader(byte[] data) {
+            this(data, 0, data.length);
+        }
+
+        private ProtoReader(byte[] data, int offset, int limit) {
+            this.data = data;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        boolean hasMore() {
+            return position < limit;
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit) {
+                    throw new IOException("protobuf数据不完整");
+                }
+                byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("protobuf varint格式错误");
+        }
+
+        long readFixed64() throws IOException {
+            if (position + 8 > limit) {
+                throw new IOException("protobuf数据不完整");
+            }
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result |= (long) (data[position++] & 0xFF) << (8 * i);
+            }
+            return result;
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        ProtoReader readMessage() throws IOException {
+            int length = readLength();
+            ProtoReader message = new ProtoReader(data, position, position + length);
+            position += length;
+            return message;
+        }
+
+        void skip(int wireType) throws IOException {
+            switch (wireType) {
+                case WIRE_VARINT:
+                    readVarint();
+                    break;
+                case WIRE_FIXED64:
+                    position += 8;
+                    break;
+                case WIRE_LENGTH_DELIMITED:
+                    position += readLength();
+                    break;
+                case 5:
+                    position += 4;
+                    break;
+                default:
+                    throw new IOException("不支持的protobuf字段类型 " + wireType);
+            }
+        }
+
+        private int readLength() throws IOException {
+            long length = readVarint();
+            if (length < 0 || position + length > limit) {
+                throw new IOException("protobuf长度字段越界");
+            }
+            return (int) length;
+        }
+    }
+}
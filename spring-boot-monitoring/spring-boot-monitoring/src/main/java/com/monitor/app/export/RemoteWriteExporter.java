@@ -0,0 +1,413 @@
+package com.monitor.app.export;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prometheus remote-write 推送导出
+ * 与/actuator/prometheus使用同一个CollectorRegistry，按固定间隔采集样本，只推送值发生变化的序列
+ * （未变化的序列每resend-interval-ms重发一次，避免在Prometheus中过期）。待发送的样本进入有界缓冲区，
+ * 发送失败时按指数退避重试，缓冲区满时丢弃最旧的批次并计数；只有推送成功的序列才记为已发送，被丢弃或拒绝的序列下个周期重发。
+ * 每个序列附加外部标签（默认instance为主机名加随机后缀、job为应用名），多个实例推送到同一Prometheus时序列不会冲突
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.export.remote-write.enabled", havingValue = "true")
+public class RemoteWriteExporter {
+
+    private final CollectorRegistry collectorRegistry;
+    private final URL url;
+    private final Map<String, String> externalLabels;
+    private final long intervalMs;
+    private final long resendIntervalMs;
+    private final int maxSamplesPerRequest;
+    private final int maxPendingSamples;
+    private final int maxRetries;
+    private final long minBackoffMs;
+    private final long maxBackoffMs;
+    private final int timeoutMs;
+
+    // 以下状态只由导出线程访问
+    private final Map<String, SentState> sentStates = new HashMap<>();
+    private final Deque<PendingBatch> pending = new ArrayDeque<>();
+    private final AtomicInteger pendingSamples = new AtomicInteger();
+    private ScheduledExecutorService executor;
+
+    private final Counter sentSamples;
+    private final Counter skippedSamples;
+    private final Counter droppedSamples;
+    private final Counter rejectedSamples;
+    private final Counter retries;
+    private final Timer requestTimer;
+    private final DistributionSummary payloadSize;
+
+    public RemoteWriteExporter(CollectorRegistry collectorRegistry, MeterRegistry meterRegistry,
+                               @Value("${monitor.export.remote-write.url:http://localhost:9090/api/v1/write}") URL url,
+                               @Value("${monitor.export.remote-write.external-labels:}") String[] externalLabels,
+                               @Value("${monitor.export.remote-write.instance:}") String instance,
+                               @Value("${spring.application.name:spring-boot-monitoring}") String job,
+                               @Value("${monitor.export.remote-write.interval-ms:15000}") long intervalMs,
+                               @Value("${monitor.export.remote-write.resend-interval-ms:120000}") long resendIntervalMs,
+                               @Value("${monitor.export.remote-write.max-samples-per-request:500}") int maxSamplesPerRequest,
+                               @Value("${monitor.export.remote-write.max-pending-samples:50000}") int maxPendingSamples,
+                               @Value("${monitor.export.remote-write.max-retries:3}") int maxRetries,
+                               @Value("${monitor.export.remote-write.min-backoff-ms:100}") long minBackoffMs,
+                               @Value("${monitor.export.remote-write.max-backoff-ms:5000}") long maxBackoffMs,
+                               @Value("${monitor.export.remote-write.timeout-ms:5000}") int timeoutMs) {
+        this.collectorRegistry = collectorRegistry;
+        this.url = url;
+        this.externalLabels = parseExternalLabels(externalLabels, instance.isEmpty() ? defaultInstance() : instance, job);
+        this.intervalMs = intervalMs;
+        this.resendIntervalMs = resendIntervalMs;
+        this.maxSamplesPerRequest = maxSamplesPerRequest;
+        this.maxPendingSamples = maxPendingSamples;
+        this.maxRetries = maxRetries;
+        this.minBackoffMs = minBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.timeoutMs = timeoutMs;
+
+        Gauge.builder("remote.write.pending", pendingSamples, AtomicInteger::get)
+             .description("等待推送的样本数")
+             .register(meterRegistry);
+        this.sentSamples = samplesCounter(meterRegistry, "sent");
+        this.skippedSamples = samplesCounter(meterRegistry, "unchanged");
+        this.droppedSamples = samplesCounter(meterRegistry, "dropped");
+        this.rejectedSamples = samplesCounter(meterRegistry, "rejected");
+        this.retries = Counter.builder("remote.write.retries")
+                              .description("推送重试次数")
+                              .register(meterRegistry);
+        this.requestTimer = Timer.builder("remote.write.request")
+                                 .description("单次推送请求耗时")
+                                 .register(meterRegistry);
+        this.payloadSize = DistributionSummary.builder("remote.write.payload.size")
+                                              .description("压缩后的推送请求体大小")
+                                              .baseUnit("bytes")
+                                              .register(meterRegistry);
+    }
+
+    /**
+     * 解析name=value形式的外部标签，未配置instance和job时使用默认值
+     */
+    static Map<String, String> parseExternalLabels(String[] entries, String instance, String job) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (String entry : entries) {
+            String trimmed = entry.trim();
+            int index = trimmed.indexOf('=');
+            if (index <= 0) {
+                if (!trimmed.isEmpty()) {
+                    log.warn("忽略无效的remote-write外部标签: {}", trimmed);
+                }
+                continue;
+            }
+            labels.put(trimmed.substring(0, index).trim(), trimmed.substring(index + 1).trim());
+        }
+        labels.putIfAbsent("instance", instance);
+        labels.putIfAbsent("job", job);
+        return Collections.unmodifiableMap(labels);
+    }
+
+    /**
+     * 主机名加随机后缀：NAT后或容器内的实例主机名可能相同，重启后的实例也不应与之前的序列混在一起
+     */
+    private static String defaultInstance() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static Counter samplesCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("remote.write.samples")
+                      .description("remote-write样本数：sent=已推送，unchanged=未变化跳过，dropped=缓冲区满丢弃，rejected=被接收端拒绝")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "remote-write");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::cycle, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("remote-write推送已启用，目标 {}，间隔 {}ms，外部标签 {}", url, intervalMs, externalLabels);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void cycle() {
+        try {
+            collect(System.currentTimeMillis());
+            flush();
+        } catch (Exception e) {
+            log.warn("remote-write推送周期执行失败", e);
+        }
+    }
+
+    /**
+     * 采集当前所有样本，只把变化的和需要重发的序列放入待发送缓冲区
+     * 值未变化且已推送成功（未到重发间隔）或仍在缓冲区中等待发送的序列跳过
+     */
+    private void collect(long now) {
+        PendingBatch batch = new PendingBatch(maxSamplesPerRequest);
+        Set<String> present = new HashSet<>();
+        int skipped = 0;
+        Enumeration<Collector.MetricFamilySamples> families = collectorRegistry.metricFamilySamples();
+        while (families.hasMoreElements()) {
+            for (Collector.MetricFamilySamples.Sample sample : families.nextElement().samples) {
+                String key = seriesKey(sample);
+                present.add(key);
+                long valueBits = Double.doubleToLongBits(sample.value);
+                SentState state = sentStates.get(key);
+                if (state != null && state.valueBits == valueBits
+                        && (!state.delivered || now - state.queuedAt < resendIntervalMs)) {
+                    skipped++;
+                    continue;
+                }
+                state = new SentState(valueBits, now);
+                sentStates.put(key, state);
+                batch.add(key, state, new RemoteWriteSeries(labels(sample, externalLabels), sample.value, now));
+                if (batch.series.size() >= maxSamplesPerRequest) {
+                    enqueue(batch);
+                    batch = new PendingBatch(maxSamplesPerRequest);
+                }
+            }
+        }
+        if (!batch.series.isEmpty()) {
+            enqueue(batch);
+        }
+        // 已消失的序列不再跟踪
+        sentStates.keySet().retainAll(present);
+        skippedSamples.increment(skipped);
+    }
+
+    private void enqueue(PendingBatch batch) {
+        pending.addLast(batch);
+        pendingSamples.addAndGet(batch.series.size());
+        while (pendingSamples.get() > maxPendingSamples && pending.size() > 1) {
+            PendingBatch dropped = pending.pollFirst();
+            pendingSamples.addAndGet(-dropped.series.size());
+            droppedSamples.increment(dropped.series.size());
+            forget(dropped);
+        }
+    }
+
+    /**
+     * 批次未送达（被丢弃或拒绝），其中的序列在下个周期重新发送
+     */
+    private void forget(PendingBatch batch) {
+        for (int i = 0; i < batch.keys.size(); i++) {
+            sentStates.remove(batch.keys.get(i), batch.states.get(i));
+        }
+    }
+
+    /**
+     * 按顺序发送缓冲区中的批次，重试用尽后保留剩余批次到下个周期
+     */
+    private void flush() {
+        while (!pending.isEmpty()) {
+            PendingBatch batch = pending.peekFirst();
+            SendResult result = sendWithRetry(batch.series);
+            if (result == SendResult.RETRY_LATER) {
+                return;
+            }
+            pending.pollFirst();
+            pendingSamples.addAndGet(-batch.series.size());
+            if (result == SendResult.SENT) {
+                for (SentState state : batch.states) {
+                    state.delivered = true;
+                }
+            } else {
+                forget(batch);
+            }
+        }
+    }
+
+    /**
+     * 发送一个批次，可重试的错误重试用尽后返回RETRY_LATER
+     */
+    private SendResult sendWithRetry(List<RemoteWriteSeries> batch) {
+        byte[] body;
+        try {
+            body = RemoteWriteCodec.encode(batch);
+        } catch (IOException e) {
+            log.warn("remote-write请求体编码失败，丢弃 {} 个样本", batch.size(), e);
+            droppedSamples.increment(batch.size());
+            return SendResult.FAILED;
+        }
+        payloadSize.record(body.length);
+
+        long backoff = minBackoffMs;
+        for (int attempt = 0; ; attempt++) {
+            int status;
+            long start = System.nanoTime();
+            try {
+                status = post(body);
+            } catch (IOException e) {
+                status = -1;
+                log.debug("remote-write推送失败: {}", e.getMessage());
+            } finally {
+                requestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            if (status >= 200 && status < 300) {
+                sentSamples.increment(batch.size());
+                return SendResult.SENT;
+            }
+            // 4xx（429除外）表示数据本身有问题，重试没有意义
+            if (status >= 400 && status < 500 && status != 429) {
+                log.warn("remote-write推送被拒绝，HTTP {}，丢弃 {} 个样本", status, batch.size());
+                rejectedSamples.increment(batch.size());
+                return SendResult.FAILED;
+            }
+            if (attempt >= maxRetries) {
+                log.warn("remote-write推送失败（状态 {}），{} 个样本留待下次发送", status, pendingSamples.get());
+                return SendResult.RETRY_LATER;
+            }
+            retries.increment();
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return SendResult.RETRY_LATER;
+            }
+            backoff = Math.min(backoff * 2, maxBackoffMs);
+        }
+    }
+
+    private int post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/x-protobuf");
+        connection.setRequestProperty("Content-Encoding", "snappy");
+        connection.setRequestProperty("X-Prometheus-Remote-Write-Version", "0.1.0");
+        connection.setRequestProperty("User-Agent", "spring-boot-monitoring");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        // 读完响应体，底层连接才能被复用
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            try (InputStream response = in) {
+                byte[] buffer = new byte[1024];
+                while (response.read(buffer) >= 0) {
+                    // 丢弃响应内容
+                }
+            }
+        }
+        return status;
+    }
+
+    private static String seriesKey(Collector.MetricFamilySamples.Sample sample) {
+        StringBuilder key = new StringBuilder(sample.name);
+        for (int i = 0; i < sample.labelNames.size(); i++) {
+            key.append('|').append(sample.labelNames.get(i)).append('=').append(sample.labelValues.get(i));
+        }
+        return key.toString();
+    }
+
+    private static Map<String, String> labels(Collector.MetricFamilySamples.Sample sample, Map<String, String> externalLabels) {
+        // remote-write要求标签按名称排序
+        Map<String, String> labels = new TreeMap<>();
+        labels.put("__name__", sample.name);
+        for (int i = 0; i < sample.labelNames.size(); i++) {
+            labels.put(sample.labelNames.get(i), sample.labelValues.get(i));
+        }
+        // 与Prometheus的external_labels相同，样本自身的同名标签优先
+        externalLabels.forEach(labels::putIfAbsent);
+        return Collections.unmodifiableMap(labels);
+    }
+
+    private enum SendResult {
+        SENT,
+        FAILED,
+        RETRY_LATER
+    }
+
+    /**
+     * 序列最近一次放入缓冲区的值，推送成功后delivered置为true
+     */
+    private static final class SentState {
+
+        private final long valueBits;
+        private final long queuedAt;
+        private boolean delivered;
+
+        SentState(long valueBits, long queuedAt) {
+            this.valueBits = valueBits;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    /**
+     * 待发送的批次及其中各序列的发送状态
+     */
+    private static final class PendingBatch {
+
+        private final List<RemoteWriteSeries> series;
+        private final List<String> keys;
+        private final List<SentState> states;
+
+        PendingBatch(int capacity) {
+            this.series = new ArrayList<>(capacity);
+            this.keys = new ArrayList<>(capacity);
+            this.states = new ArrayList<>(capacity);
+        }
+
+        void add(String key, SentState state, RemoteWriteSeries item) {
+            series.add(item);
+            keys.add(key);
+            states.add(state);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.monitor.app.export;
+
+import java.util.Map;
+
+/**
+ * remote-write中的单个序列及其一个样本，标签按名称排序（包含__name__）
+ */
+public final class RemoteWriteSeries {
+
+    private final Map<String, String> labels;
+    private final double value;
+    private final long timestamp;
+
+    public RemoteWriteSeries(Map<String, String> labels, double value, long timestamp) {
+        this.labels = labels;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
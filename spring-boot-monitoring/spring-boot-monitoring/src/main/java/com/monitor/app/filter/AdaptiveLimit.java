@@ -0,0 +1,94 @@
+package com.monitor.app.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于延迟梯度的自适应并发上限
+ * 长期平均延迟与短期延迟之比作为梯度：延迟上升时按比例收缩上限，延迟平稳且请求量接近上限时按sqrt(limit)增加
+ */
+class AdaptiveLimit {
+
+    // 长期延迟的指数平均系数，约等于最近100个样本
+    private static final double LONG_RTT_ALPHA = 0.01;
+    // 短期延迟的指数平均系数，约等于最近10个样本
+    private static final double SHORT_RTT_ALPHA = 0.1;
+    // 长期延迟允许短期延迟超出的倍数，超出部分才算作拥塞
+    private static final double TOLERANCE = 1.5;
+    // 新上限与当前上限的平滑系数
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRtt;
+    private double shortRtt;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * 尝试占用一个并发名额，scale为内存压力等外部因素对上限的缩放比例
+     * 成功时返回占用时的在途请求数，失败时返回-1
+     */
+    int tryAcquire(double scale) {
+        int effectiveLimit = Math.max(minLimit, (int) (limit * scale));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= effectiveLimit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * 释放名额并用本次请求的耗时更新上限
+     */
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        double rtt = rttNanos;
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+            return;
+        }
+        longRtt += (rtt - longRtt) * LONG_RTT_ALPHA;
+        shortRtt += (rtt - shortRtt) * SHORT_RTT_ALPHA;
+
+        double current = limit;
+        // 请求量远低于上限时延迟不能反映容量，不放大上限
+        if (inFlightAtStart < current / 2 && shortRtt <= longRtt * TOLERANCE) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double queueSize = Math.sqrt(current);
+        double newLimit = current * gradient + queueSize;
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        // 拥塞结束后长期延迟仍停留在高位，让它向短期延迟回落，避免上限一直按放大后的延迟增长
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+    }
+
+    double getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
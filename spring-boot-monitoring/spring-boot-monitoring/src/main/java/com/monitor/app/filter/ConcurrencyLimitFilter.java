@@ -0,0 +1,183 @@
+package com.monitor.app.filter;
+
+import com.monitor.app.health.MemoryHealthIndicator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 自适应并发限流过滤器
+ * 按接口分组（/api/下的第一级路径）维护在途请求上限，上限根据实际响应时间自动调整；
+ * 达到上限时直接返回503，不再排队等待。内存使用率超过阈值时按比例收紧上限
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String OTHER_GROUP = "other";
+    private static final byte[] REJECTED_BODY = "{\"message\":\"服务繁忙，请稍后重试\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final MeterRegistry meterRegistry;
+    private final MemoryHealthIndicator memoryHealthIndicator;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxGroups;
+    private final double memoryPressurePercent;
+    private final ConcurrentMap<String, GroupLimit> groups = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry, MemoryHealthIndicator memoryHealthIndicator,
+                                  int initialLimit, int minLimit, int maxLimit, int maxGroups,
+                                  double memoryPressurePercent) {
+        this.meterRegistry = meterRegistry;
+        this.memoryHealthIndicator = memoryHealthIndicator;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxGroups = maxGroups;
+        this.memoryPressurePercent = memoryPressurePercent;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // 异步请求只在首次分发时占用名额，完成时由AsyncListener释放
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        GroupLimit group = group(request.getRequestURI());
+        int inFlightAtStart = group.limit.tryAcquire(memoryScale());
+        if (inFlightAtStart < 0) {
+            group.rejected.increment();
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                group.limit.release(System.nanoTime() - start, inFlightAtStart);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * 内存使用率超过阈值后，上限按剩余空间线性缩小，使用率达到100%时降到最小上限
+     */
+    private double memoryScale() {
+        if (memoryHealthIndicator == null || memoryPressurePercent >= 100) {
+            return 1.0;
+        }
+        double usage = memoryHealthIndicator.getMemoryUsagePercent();
+        if (usage <= memoryPressurePercent) {
+            return 1.0;
+        }
+        return Math.max(0.0, (100 - usage) / (100 - memoryPressurePercent));
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private GroupLimit group(String uri) {
+        String name = groupName(uri);
+        GroupLimit group = groups.get(name);
+        if (group != null) {
+            return group;
+        }
+        if (groups.size() >= maxGroups) {
+            name = OTHER_GROUP;
+        }
+        return groups.computeIfAbsent(name, GroupLimit::new);
+    }
+
+    // 取前两级路径作为分组，例如/api/logs/page归入/api/logs
+    static String groupName(String uri) {
+        int first = uri.indexOf('/', 1);
+        if (first < 0) {
+            return uri;
+        }
+        int second = uri.indexOf('/', first + 1);
+        return second < 0 ? uri : uri.substring(0, second);
+    }
+
+    private final class GroupLimit {
+
+        private final AdaptiveLimit limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit);
+        private final Counter rejected;
+
+        GroupLimit(String name) {
+            Gauge.builder("concurrency.limit", limit, AdaptiveLimit::getLimit)
+                 .description("当前并发上限")
+                 .tag("group", name)
+                 .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limit, AdaptiveLimit::getInFlight)
+                 .description("在途请求数")
+                 .tag("group", name)
+                 .register(meterRegistry);
+            this.rejected = Counter.builder("concurrency.rejected")
+                                   .description("因超过并发上限被拒绝的请求数")
+                                   .tag("group", name)
+                                   .register(meterRegistry);
+        }
+    }
+
+    private static final class ReleaseListener implements AsyncListener {
+
+        private final Runnable release;
+
+        ReleaseListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 重新开始异步处理时需要再次注册
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.monitor.app.filter;
+
+import com.monitor.app.jdbc.JdbcStatementMetrics;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 为每个请求开启SQL执行统计，请求结束时检查同一查询的重复执行（N+1）
+ * 包含视图渲染和JSON序列化阶段触发的延迟加载
+ */
+public class JdbcRequestContextFilter extends OncePerRequestFilter {
+
+    private final JdbcStatementMetrics jdbcStatementMetrics;
+
+    public JdbcRequestContextFilter(JdbcStatementMetrics jdbcStatementMetrics) {
+        this.jdbcStatementMetrics = jdbcStatementMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        jdbcStatementMetrics.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // 使用匹配到的路径模板，避免路径参数造成标签膨胀
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            jdbcStatementMetrics.endRequest(request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED"));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.monitor.app.filter;
+
+import com.monitor.app.metrics.PrometheusScrapeCache;
+import com.monitor.app.server.AcceptEncoding;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 对支持gzip的Prometheus采集请求直接返回缓存的gzip结果，避免每次采集都重新压缩
+ * 只在prometheus端点开启并通过HTTP暴露时注册（见PrometheusScrapeConfig）
+ */
+public class PrometheusGzipScrapeFilter extends OncePerRequestFilter {
+
+    private final PrometheusScrapeCache scrapeCache;
+
+    public PrometheusGzipScrapeFilter(PrometheusScrapeCache scrapeCache) {
+        this.scrapeCache = scrapeCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !AcceptEncoding.prefersGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                || request.getParameter("includedNames") != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        boolean openMetrics = accept != null && accept.contains("application/openmetrics-text");
+        byte[] body = scrapeCache.getGzip(openMetrics);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(openMetrics ? TextFormat.CONTENT_TYPE_OPENMETRICS_100 : TextFormat.CONTENT_TYPE_004);
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
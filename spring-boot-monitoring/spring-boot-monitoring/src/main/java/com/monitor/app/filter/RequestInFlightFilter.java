@@ -0,0 +1,236 @@
+package com.monitor.app.filter;
+
+import com.monitor.app.server.InstrumentedTomcatExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接层的请求指标，作为最外层的过滤器在所有其他过滤器之前执行
+ * 按路由（/api/和/actuator/下的前两级路径，与并发限流的分组相同）记录在途请求数、等待请求线程的时间和进入处理器之前在过滤器链中的耗时，
+ * 并统计没有匹配到处理器的404和被限流拒绝（429/503）的请求；这些都发生在ApiMetricsAspect开始计时之前。
+ * 只有处理器映射中实际存在的路由才单独建立指标，其余/api/和/actuator/下的路径归入NOT_FOUND，避免扫描请求占满max-routes。
+ * 过滤器在MeterRegistry之前创建，绑定到注册表之前的请求不做记录
+ */
+public class RequestInFlightFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final String OTHER_ROUTE = "other";
+    private static final String NOT_FOUND_ROUTE = "NOT_FOUND";
+    private static final String ROUTE_ATTRIBUTE = RequestInFlightFilter.class.getName() + ".route";
+    private static final String START_ATTRIBUTE = RequestInFlightFilter.class.getName() + ".start";
+
+    private final int maxRoutes;
+    private final ConcurrentMap<String, RouteMeters> routes = new ConcurrentHashMap<>();
+    private volatile Set<String> knownRoutes = Collections.emptySet();
+    private volatile RouteMeters notFoundRoute;
+    private volatile MeterRegistry meterRegistry;
+    private volatile Counter notFound;
+
+    public RequestInFlightFilter(int maxRoutes) {
+        this.maxRoutes = maxRoutes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.notFound = Counter.builder("http.server.requests.unhandled")
+                               .description("没有到达控制器的请求数（未匹配的404和被拒绝的请求）")
+                               .tag("reason", "not_found")
+                               .tag("route", NOT_FOUND_ROUTE)
+                               .register(registry);
+        this.notFoundRoute = new RouteMeters(NOT_FOUND_ROUTE, registry);
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * 根据处理器映射的路径模式确定可以单独建立指标的路由，在Web服务器启动前调用
+     */
+    public void registerRoutes(Collection<String> patterns) {
+        Set<String> names = new HashSet<>();
+        for (String pattern : patterns) {
+            if (isRouted(pattern)) {
+                String name = ConcurrencyLimitFilter.groupName(pattern);
+                // 前两级中带路径变量或通配符的模式无法对应到固定的路由名
+                if (name.indexOf('{') < 0 && name.indexOf('*') < 0) {
+                    names.add(name);
+                }
+            }
+        }
+        this.knownRoutes = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * 在处理器执行前记录请求在过滤器链和DispatcherServlet中的耗时
+     */
+    public HandlerInterceptor dispatchInterceptor() {
+        return new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                Object route = request.getAttribute(ROUTE_ATTRIBUTE);
+                Object start = request.getAttribute(START_ATTRIBUTE);
+                if (route instanceof RouteMeters && start instanceof Long
+                        && request.getDispatcherType() == DispatcherType.REQUEST) {
+                    ((RouteMeters) route).dispatchDelay.record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+                }
+                return true;
+            }
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // 异步请求在首次分发时计入在途，完成时由AsyncListener减去
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        long queueWait = InstrumentedTomcatExecutor.takeQueueWait();
+        RouteMeters route = meterRegistry != null ? route(request.getRequestURI()) : null;
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (queueWait >= 0) {
+            route.queueWait.record(queueWait, TimeUnit.NANOSECONDS);
+        }
+        request.setAttribute(ROUTE_ATTRIBUTE, route);
+        request.setAttribute(START_ATTRIBUTE, start);
+        route.inFlight.incrementAndGet();
+        AtomicBoolean completed = new AtomicBoolean();
+        Runnable complete = () -> {
+            if (completed.compareAndSet(false, true)) {
+                route.inFlight.decrementAndGet();
+                classify(request, response, route);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(complete));
+            } else {
+                complete.run();
+            }
+        }
+    }
+
+    private void classify(HttpServletRequest request, HttpServletResponse response, RouteMeters route) {
+        int status = response.getStatus();
+        if (status == HttpServletResponse.SC_NOT_FOUND) {
+            // 未匹配的路径由静态资源处理器/**兜底
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern == null || "/**".equals(pattern)) {
+                notFound.increment();
+            }
+        } else if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE || status == 429) {
+            route.rejected.increment();
+        }
+    }
+
+    private RouteMeters route(String uri) {
+        // 只为业务接口和Actuator端点单独建立路由，其余路径（静态资源等）归入other；
+        // 映射中不存在的接口路径（扫描请求、拼错的地址）归入NOT_FOUND，不占用路由名额
+        String name = OTHER_ROUTE;
+        if (isRouted(uri)) {
+            name = ConcurrencyLimitFilter.groupName(uri);
+            if (!knownRoutes.contains(name)) {
+                return notFoundRoute;
+            }
+        }
+        RouteMeters route = routes.get(name);
+        if (route != null) {
+            return route;
+        }
+        if (routes.size() >= maxRoutes) {
+            name = OTHER_ROUTE;
+        }
+        return routes.computeIfAbsent(name, key -> new RouteMeters(key, meterRegistry));
+    }
+
+    private static boolean isRouted(String path) {
+        return path.startsWith("/api/") || path.startsWith("/actuator/");
+    }
+
+    private static final class RouteMeters {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer queueWait;
+        private final Timer dispatchDelay;
+        private final Counter rejected;
+
+        RouteMeters(String name, MeterRegistry meterRegistry) {
+            Gauge.builder("http.server.inflight", inFlight, AtomicInteger::get)
+                 .description("从进入过滤器链到响应完成的在途请求数")
+                 .tag("route", name)
+                 .register(meterRegistry);
+            this.queueWait = Timer.builder("http.server.queue.wait")
+                                  .description("请求等待Tomcat请求线程的时间")
+                                  .tag("route", name)
+                                  .register(meterRegistry);
+            this.dispatchDelay = Timer.builder("http.server.dispatch.delay")
+                                      .description("请求从进入过滤器链到开始执行处理器的耗时")
+                                      .tag("route", name)
+                                      .register(meterRegistry);
+            this.rejected = Counter.builder("http.server.requests.unhandled")
+                                   .description("没有到达控制器的请求数（未匹配的404和被拒绝的请求）")
+                                   .tag("reason", "rejected")
+                                   .tag("route", name)
+                                   .register(meterRegistry);
+        }
+    }
+
+    private static final class CompletionListener implements AsyncListener {
+
+        private final Runnable complete;
+
+        CompletionListener(Runnable complete) {
+            this.complete = complete;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            complete.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -1,34 +1,82 @@
 package com.monitor.app.health;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 磁盘空间健康检查
+ * 由定时任务对配置的多个路径采样并预先构建Health结果，任一路径空闲空间不足即为DOWN
+ */
 @Component
 public class DiskSpaceHealthIndicator implements HealthIndicator {
 
+    private final String[] paths;
+    private final double minFreePercent;
+    private final long maxStalenessNanos;
+    private volatile HealthSnapshot snapshot;
+
+    public DiskSpaceHealthIndicator(@Value("${monitor.health.disk.paths:/}") String[] paths,
+                                    @Value("${monitor.health.disk.min-free-percent:10}") double minFreePercent,
+                                    @Value("${monitor.health.max-staleness-ms:15000}") long maxStalenessMs) {
+        this.paths = paths;
+        this.minFreePercent = minFreePercent;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
     @Override
     public Health health() {
-        // 检查系统磁盘空间
-        long freeSpace = new File("/").getFreeSpace();
-        long totalSpace = new File("/").getTotalSpace();
-        double freeSpacePercent = (double) freeSpace / totalSpace * 100;
-        
-        if (freeSpacePercent < 10) {
-            return Health.down()
-                    .withDetail("error", "磁盘空间不足")
-                    .withDetail("freeSpace", freeSpace)
-                    .withDetail("totalSpace", totalSpace)
-                    .withDetail("freeSpacePercent", String.format("%.2f%%", freeSpacePercent))
-                    .build();
+        HealthSnapshot current = snapshot;
+        if (current == null || current.isOlderThan(maxStalenessNanos)) {
+            current = refresh();
+        }
+        return current.getHealth();
+    }
+
+    @Scheduled(fixedRateString = "${monitor.health.sample-interval-ms:5000}")
+    public void sample() {
+        refresh();
+    }
+
+    private HealthSnapshot refresh() {
+        List<String> lowSpacePaths = new ArrayList<>();
+        Map<String, Object> pathDetails = new LinkedHashMap<>();
+        double minFreeSpacePercent = 100;
+
+        for (String path : paths) {
+            // 检查磁盘空间
+            File file = new File(path);
+            long freeSpace = file.getFreeSpace();
+            long totalSpace = file.getTotalSpace();
+            double freeSpacePercent = totalSpace > 0 ? (double) freeSpace / totalSpace * 100 : 0;
+            if (freeSpacePercent < minFreePercent) {
+                lowSpacePaths.add(path);
+            }
+            minFreeSpacePercent = Math.min(minFreeSpacePercent, freeSpacePercent);
+
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("freeSpace", freeSpace);
+            details.put("totalSpace", totalSpace);
+            details.put("freeSpacePercent", String.format("%.2f%%", freeSpacePercent));
+            pathDetails.put(path, details);
         }
-        
-        return Health.up()
-                .withDetail("freeSpace", freeSpace)
-                .withDetail("totalSpace", totalSpace)
-                .withDetail("freeSpacePercent", String.format("%.2f%%", freeSpacePercent))
-                .build();
+
+        Health.Builder builder = lowSpacePaths.isEmpty()
+                ? Health.up()
+                : Health.down().withDetail("error", "磁盘空间不足: " + String.join(", ", lowSpacePaths));
+        Health health = builder.withDetails(pathDetails).build();
+
+        HealthSnapshot sampled = new HealthSnapshot(health, minFreeSpacePercent);
+        snapshot = sampled;
+        return sampled;
     }
 }
@@ -0,0 +1,34 @@
+package com.monitor.app.health;
+
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * 健康检查采样快照：预先构建好的Health结果及采样时间
+ */
+class HealthSnapshot {
+
+    private final Health health;
+    private final double value;
+    private final long sampledAt;
+
+    HealthSnapshot(Health health, double value) {
+        this.health = health;
+        this.value = value;
+        this.sampledAt = System.nanoTime();
+    }
+
+    Health getHealth() {
+        return health;
+    }
+
+    /**
+     * 采样得到的主要指标值，例如内存使用率
+     */
+    double getValue() {
+        return value;
+    }
+
+    boolean isOlderThan(long nanos) {
+        return System.nanoTime() - sampledAt > nanos;
+    }
+}
@@ -1,14 +1,57 @@
 package com.monitor.app.health;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存健康检查
+ * 由定时任务采样并预先构建Health结果，健康检查请求直接返回最近一次快照，
+ * 快照超过最大陈旧时间时才在请求线程上重新采样
+ */
 @Component
 public class MemoryHealthIndicator implements HealthIndicator {
 
+    private final double maxUsagePercent;
+    private final long maxStalenessNanos;
+    private volatile HealthSnapshot snapshot;
+
+    public MemoryHealthIndicator(@Value("${monitor.health.memory.max-usage-percent:90}") double maxUsagePercent,
+                                 @Value("${monitor.health.max-staleness-ms:15000}") long maxStalenessMs) {
+        this.maxUsagePercent = maxUsagePercent;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
     @Override
     public Health health() {
+        HealthSnapshot current = snapshot;
+        if (current == null || current.isOlderThan(maxStalenessNanos)) {
+            current = refresh();
+        }
+        return current.getHealth();
+    }
+
+    /**
+     * 最近一次采样的内存使用率(%)
+     */
+    public double getMemoryUsagePercent() {
+        HealthSnapshot current = snapshot;
+        if (current == null || current.isOlderThan(maxStalenessNanos)) {
+            current = refresh();
+        }
+        return current.getValue();
+    }
+
+    @Scheduled(fixedRateString = "${monitor.health.sample-interval-ms:5000}")
+    public void sample() {
+        refresh();
+    }
+
+    private HealthSnapshot refresh() {
         // 检查系统内存
         Runtime runtime = Runtime.getRuntime();
         long maxMemory = runtime.maxMemory();
@@ -16,24 +59,20 @@ public class MemoryHealthIndicator implements HealthIndicator {
         long freeMemory = runtime.freeMemory();
         long usedMemory = totalMemory - freeMemory;
         double memoryUsagePercent = (double) usedMemory / maxMemory * 100;
-        
-        if (memoryUsagePercent > 90) {
-            return Health.down()
-                    .withDetail("error", "内存使用率过高")
-                    .withDetail("maxMemory", maxMemory)
-                    .withDetail("totalMemory", totalMemory)
-                    .withDetail("freeMemory", freeMemory)
-                    .withDetail("usedMemory", usedMemory)
-                    .withDetail("memoryUsagePercent", String.format("%.2f%%", memoryUsagePercent))
-                    .build();
-        }
-        
-        return Health.up()
+
+        Health.Builder builder = memoryUsagePercent > maxUsagePercent
+                ? Health.down().withDetail("error", "内存使用率过高")
+                : Health.up();
+        Health health = builder
                 .withDetail("maxMemory", maxMemory)
                 .withDetail("totalMemory", totalMemory)
                 .withDetail("freeMemory", freeMemory)
                 .withDetail("usedMemory", usedMemory)
                 .withDetail("memoryUsagePercent", String.format("%.2f%%", memoryUsagePercent))
                 .build();
+
+        HealthSnapshot sampled = new HealthSnapshot(health, memoryUsagePercent);
+        snapshot = sampled;
+        return sampled;
     }
 }
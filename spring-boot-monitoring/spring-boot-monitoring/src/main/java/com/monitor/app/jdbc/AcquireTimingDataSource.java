@@ -0,0 +1,48 @@
+package com.monitor.app.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * 记录从连接池获取连接等待时间的数据源包装
+ * Hikari在connectionTimeout内拿不到连接时抛出SQLTransientConnectionException，按超时计数
+ */
+public class AcquireTimingDataSource extends DelegatingDataSource {
+
+    private final ConnectionAcquireMetrics metrics;
+
+    public AcquireTimingDataSource(DataSource targetDataSource, ConnectionAcquireMetrics metrics) {
+        super(targetDataSource);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection();
+            metrics.record(System.nanoTime() - start, false);
+            return connection;
+        } catch (SQLTransientConnectionException e) {
+            metrics.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection(username, password);
+            metrics.record(System.nanoTime() - start, false);
+            return connection;
+        } catch (SQLTransientConnectionException e) {
+            metrics.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+}
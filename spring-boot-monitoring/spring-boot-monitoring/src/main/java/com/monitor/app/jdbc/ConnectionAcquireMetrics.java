@@ -0,0 +1,63 @@
+package com.monitor.app.jdbc;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 获取数据库连接的等待耗时和超时次数
+ * 等待耗时同时写入HdrHistogram记录器，供连接池自动调整按区间读取p99
+ */
+public class ConnectionAcquireMetrics implements MeterBinder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder recorder = new Recorder(1, HIGHEST_TRACKABLE_MICROS, 2);
+    private final LongAdder timeouts = new LongAdder();
+    private volatile Timer acquireTimer;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.acquireTimer = Timer.builder("db.connection.acquire")
+                                 .description("获取数据库连接的等待耗时")
+                                 .publishPercentileHistogram()
+                                 .minimumExpectedValue(Duration.ofNanos(10_000))
+                                 .maximumExpectedValue(Duration.ofSeconds(30))
+                                 .register(registry);
+        FunctionCounter.builder("db.connection.acquire.timeouts", timeouts, LongAdder::sum)
+                       .description("获取数据库连接超时次数")
+                       .register(registry);
+    }
+
+    /**
+     * 记录一次获取连接的等待，超时的等待同样计入耗时分布
+     */
+    void record(long durationNanos, boolean timeout) {
+        if (timeout) {
+            timeouts.increment();
+        }
+        Timer timer = acquireTimer;
+        if (timer != null) {
+            timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+        recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(durationNanos), 1), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    /**
+     * 取出上次调用以来的等待耗时分布（微秒），传入上次返回的对象以复用
+     */
+    public Histogram intervalHistogram(Histogram recycle) {
+        return recorder.getIntervalHistogram(recycle);
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+}
@@ -0,0 +1,255 @@
+package com.monitor.app.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 记录语句级指标的数据源包装
+ * 连接、语句和结果集都通过JDK动态代理包装：语句执行时计时，结果集关闭时上报读取的行数，批量执行时上报批量大小
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final JdbcStatementMetrics metrics;
+
+    public InstrumentedDataSource(DataSource targetDataSource, JdbcStatementMetrics metrics) {
+        super(targetDataSource);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 代理的公共处理：equals/hashCode按代理对象本身计算，unwrap/isWrapperFor在代理本身满足类型时返回代理
+     */
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        private final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            int parameterCount = method.getParameterCount();
+            if ("equals".equals(name) && parameterCount == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && parameterCount == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("unwrap".equals(name) && parameterCount == 1) {
+                Class<?> type = (Class<?>) args[0];
+                return type.isInstance(proxy) && !type.isInstance(target) ? proxy : delegate(method, args);
+            }
+            if ("isWrapperFor".equals(name) && parameterCount == 1) {
+                return ((Class<?>) args[0]).isInstance(proxy) || (Boolean) delegate(method, args);
+            }
+            return handle(proxy, method, args);
+        }
+
+        Object delegate(Method method, Object[] args) throws Throwable {
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+
+    private final class ConnectionHandler extends DelegatingHandler {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler((Statement) result, null, (Connection) proxy));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class,
+                            new StatementHandler((Statement) result, (String) args[0], (Connection) proxy));
+                case "prepareCall":
+                    return proxy(CallableStatement.class,
+                            new StatementHandler((Statement) result, (String) args[0], (Connection) proxy));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private final class StatementHandler extends DelegatingHandler {
+
+        private final Connection connection;
+        // 预编译语句的SQL，普通Statement在执行时从参数中获取
+        private final String sql;
+        private String batchSql;
+        private int batchCount;
+        private JdbcStatementMetrics.StatementMeters lastMeters;
+
+        StatementHandler(Statement target, String sql, Connection connection) {
+            super(target);
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                    return execute(method, args);
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return executeBatch(method, args);
+                case "addBatch":
+                    batchCount++;
+                    if (args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                    return delegate(method, args);
+                case "clearBatch":
+                    batchCount = 0;
+                    batchSql = null;
+                    return delegate(method, args);
+                case "getResultSet":
+                    return wrapResultSet((ResultSet) delegate(method, args), lastMeters);
+                case "getConnection":
+                    return connection;
+                default:
+                    return delegate(method, args);
+            }
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = delegate(method, args);
+            } catch (Throwable e) {
+                metrics.recordExecution(statementSql, System.nanoTime() - start, 0, true);
+                throw e;
+            }
+            JdbcStatementMetrics.StatementMeters meters =
+                    metrics.recordExecution(statementSql, System.nanoTime() - start, 0, false);
+            lastMeters = meters;
+            if (result instanceof ResultSet) {
+                return wrapResultSet((ResultSet) result, meters);
+            }
+            if (result instanceof Number) {
+                metrics.recordRows(meters, ((Number) result).longValue());
+            }
+            return result;
+        }
+
+        private Object executeBatch(Method method, Object[] args) throws Throwable {
+            String statementSql = sql != null ? sql : batchSql;
+            int size = batchCount;
+            batchCount = 0;
+            batchSql = null;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = delegate(method, args);
+            } catch (Throwable e) {
+                metrics.recordExecution(statementSql, System.nanoTime() - start, size, true);
+                throw e;
+            }
+            JdbcStatementMetrics.StatementMeters meters =
+                    metrics.recordExecution(statementSql, System.nanoTime() - start, size, false);
+            metrics.recordRows(meters, affectedRows(result));
+            return result;
+        }
+
+        private long affectedRows(Object result) {
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, JdbcStatementMetrics.StatementMeters meters) {
+            if (resultSet == null || meters == null) {
+                return resultSet;
+            }
+            return proxy(ResultSet.class, new ResultSetHandler(resultSet, meters));
+        }
+    }
+
+    /**
+     * 统计next()读到的行数，关闭时上报一次
+     */
+    private final class ResultSetHandler extends DelegatingHandler {
+
+        private final JdbcStatementMetrics.StatementMeters meters;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet target, JdbcStatementMetrics.StatementMeters meters) {
+            super(target);
+            this.meters = meters;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if ("next".equals(method.getName())) {
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                }
+            } else if ("close".equals(method.getName()) && !reported) {
+                reported = true;
+                metrics.recordRows(meters, rows);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.monitor.app.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * SQL语句级别的指标
+ * 按归一化后的语句形状（字面量替换为?）记录执行耗时、返回/影响行数和批量大小，
+ * 每个形状的百分位直方图约有70个桶序列，默认不发布，需要时通过percentileHistogram开启；
+ * 并把数据库耗时归到发起调用的Repository方法上；超过阈值的语句写入慢查询日志，
+ * 同一请求内同一查询重复执行超过阈值时按疑似N+1上报。
+ * 数据源在MeterRegistry之前创建，绑定到注册表之前执行的语句不做记录
+ */
+@Slf4j
+public class JdbcStatementMetrics implements MeterBinder {
+
+    private static final String OTHER = "OTHER";
+    private static final String NO_REPOSITORY = "none";
+    private static final int MAX_SQL_TAG_LENGTH = 200;
+    private static final int MAX_SLOW_QUERY_SQL_LENGTH = 1000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final ThreadLocal<String> CURRENT_REPOSITORY = new ThreadLocal<>();
+    private static final ThreadLocal<RequestContext> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final int maxStatements;
+    private final boolean percentileHistogram;
+    private final long slowQueryNanos;
+    private final int slowQueryLogSize;
+    private final int nPlusOneThreshold;
+
+    private volatile MeterRegistry meterRegistry;
+    // 原始SQL到语句指标的缓存，Hibernate生成的SQL文本是固定的，避免每次执行都做归一化
+    private final ConcurrentMap<String, StatementMeters> bySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StatementMeters> byShape = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> repositoryTimers = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> slowQueries = new ArrayDeque<>();
+
+    public JdbcStatementMetrics(int maxStatements, boolean percentileHistogram, long slowQueryMs,
+                                int slowQueryLogSize, int nPlusOneThreshold) {
+        this.maxStatements = maxStatements;
+        this.percentileHistogram = percentileHistogram;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        this.slowQueryLogSize = slowQueryLogSize;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * 记录一次语句执行，返回语句指标用于后续记录结果集行数；未绑定注册表时返回null
+     */
+    StatementMeters recordExecution(String sql, long durationNanos, int batchSize, boolean failed) {
+        if (meterRegistry == null || sql == null) {
+            return null;
+        }
+        StatementMeters meters = meters(sql);
+        meters.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (batchSize > 0) {
+            meters.batchSize().record(batchSize);
+        }
+        if (failed) {
+            meters.errors().increment();
+        }
+
+        String repository = CURRENT_REPOSITORY.get();
+        repositoryTimer(repository != null ? repository : NO_REPOSITORY).record(durationNanos, TimeUnit.NANOSECONDS);
+
+        RequestContext request = CURRENT_REQUEST.get();
+        if (request != null && meters.select) {
+            request.executions.merge(meters.shape, 1, Integer::sum);
+        }
+        if (durationNanos >= slowQueryNanos) {
+            logSlowQuery(sql, durationNanos, repository);
+        }
+        return meters;
+    }
+
+    void recordRows(StatementMeters meters, long rows) {
+        if (meters != null && rows >= 0) {
+            meters.rows.record(rows);
+        }
+    }
+
+    /**
+     * 标记当前线程正在执行的Repository方法，返回之前的值用于恢复
+     */
+    static String enterRepository(String repository) {
+        String previous = CURRENT_REPOSITORY.get();
+        CURRENT_REPOSITORY.set(repository);
+        return previous;
+    }
+
+    static void exitRepository(String previous) {
+        if (previous == null) {
+            CURRENT_REPOSITORY.remove();
+        } else {
+            CURRENT_REPOSITORY.set(previous);
+        }
+    }
+
+    /**
+     * 开始统计当前线程上一个请求内执行的查询
+     */
+    public void beginRequest() {
+        CURRENT_REQUEST.set(new RequestContext());
+    }
+
+    /**
+     * 请求结束，同一查询执行次数达到阈值时按疑似N+1上报
+     */
+    public void endRequest(String endpoint) {
+        RequestContext request = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.remove();
+        if (request == null || meterRegistry == null) {
+            return;
+        }
+        for (Map.Entry<String, Integer> entry : request.executions.entrySet()) {
+            if (entry.getValue() < nPlusOneThreshold) {
+                continue;
+            }
+            log.warn("疑似N+1查询: {} 中同一查询执行了 {} 次: {}", endpoint, entry.getValue(), entry.getKey());
+            Counter.builder("db.statement.n_plus_one")
+                   .description("同一请求内重复执行超过阈值的查询（疑似N+1）次数")
+                   .tag("sql", entry.getKey())
+                   .tag("endpoint", endpoint)
+                   .register(meterRegistry)
+                   .increment();
+        }
+    }
+
+    /**
+     * 最近的慢查询，最新的在前
+     */
+    public List<Map<String, Object>> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    private void logSlowQuery(String sql, long durationNanos, String repository) {
+        double durationMs = durationNanos / 1_000_000.0;
+        String text = sql.length() > MAX_SLOW_QUERY_SQL_LENGTH ? sql.substring(0, MAX_SLOW_QUERY_SQL_LENGTH) + "..." : sql;
+        log.warn("慢查询 {}ms [{}]: {}", String.format("%.1f", durationMs), repository, text);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("timestamp", Instant.now().toString());
+        entry.put("durationMs", durationMs);
+        entry.put("repository", repository);
+        entry.put("sql", text);
+        synchronized (slowQueries) {
+            slowQueries.addFirst(entry);
+            while (slowQueries.size() > slowQueryLogSize) {
+                slowQueries.removeLast();
+            }
+        }
+    }
+
+    private StatementMeters meters(String sql) {
+        StatementMeters meters = bySql.get(sql);
+        if (meters != null) {
+            return meters;
+        }
+        String shape = normalize(sql);
+        if (!byShape.containsKey(shape) && byShape.size() >= maxStatements) {
+            shape = OTHER;
+        }
+        meters = byShape.computeIfAbsent(shape, StatementMeters::new);
+        // 原始SQL缓存只在语句形状数量受限时才有意义，字面量拼接的SQL不缓存
+        if (bySql.size() < maxStatements * 4) {
+            bySql.putIfAbsent(sql, meters);
+        }
+        return meters;
+    }
+
+    private Timer repositoryTimer(String repository) {
+        Timer timer = repositoryTimers.get(repository);
+        if (timer == null) {
+            timer = repositoryTimers.computeIfAbsent(repository, key -> Timer.builder("db.repository.statements")
+                                                                             .description("按Repository方法汇总的SQL执行耗时")
+                                                                             .tag("repository", key)
+                                                                             .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    /**
+     * SQL归一化：合并空白、字面量替换为?、IN列表折叠，截断到标签长度上限
+     */
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return shape.length() > MAX_SQL_TAG_LENGTH ? shape.substring(0, MAX_SQL_TAG_LENGTH) : shape;
+    }
+
+    private static String statementType(String shape) {
+        int end = shape.indexOf(' ');
+        String keyword = (end > 0 ? shape.substring(0, end) : shape).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+            case "call":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+
+    /**
+     * 单个语句形状的指标，批量大小和错误计数按需注册
+     */
+    final class StatementMeters {
+
+        private final String shape;
+        private final boolean select;
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private volatile DistributionSummary batchSize;
+        private volatile Counter errors;
+
+        StatementMeters(String shape) {
+            this.shape = shape;
+            String type = statementType(shape);
+            this.select = "select".equals(type);
+            this.timer = Timer.builder("db.statement")
+                              .description("SQL语句执行耗时")
+                              .tag("sql", shape)
+                              .tag("type", type)
+                              .publishPercentileHistogram(percentileHistogram)
+                              .minimumExpectedValue(Duration.ofNanos(100_000))
+                              .maximumExpectedValue(Duration.ofSeconds(10))
+                              .register(meterRegistry);
+            this.rows = DistributionSummary.builder("db.statement.rows")
+                                           .description("SQL语句返回或影响的行数")
+                                           .tag("sql", shape)
+                                           .register(meterRegistry);
+        }
+
+        DistributionSummary batchSize() {
+            if (batchSize == null) {
+                batchSize = DistributionSummary.builder("db.statement.batch.size")
+                                               .description("批量执行的语句数")
+                                               .tag("sql", shape)
+                                               .register(meterRegistry);
+            }
+            return batchSize;
+        }
+
+        Counter errors() {
+            if (errors == null) {
+                errors = Counter.builder("db.statement.errors")
+                                .description("SQL语句执行失败次数")
+                                .tag("sql", shape)
+                                .register(meterRegistry);
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 单个请求内各查询形状的执行次数，只由请求线程访问
+     */
+    private static final class RequestContext {
+
+        private final Map<String, Integer> executions = new HashMap<>();
+    }
+}
@@ -0,0 +1,195 @@
+package com.monitor.app.jdbc;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hikari连接池最大连接数自动调整
+ * 每sample-interval-ms采样一次连接池的活跃连接占比，每interval-ms根据这段时间获取连接等待的p99、超时次数和占比做一次决策：
+ * 等待超过目标（或出现超时）且连接基本用满时扩容；连续多个区间等待很低且占比低于下限时每次缩容一个连接。
+ * 最大连接数始终在min-size和max-size之间，每次调整发布PoolResizeEvent并计入db.pool.resizes
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.database.pool.auto-tune.enabled", havingValue = "true")
+public class PoolAutoTuner {
+
+    private final DataSource dataSource;
+    private final ConnectionAcquireMetrics acquireMetrics;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int minSize;
+    private final int maxSize;
+    private final double targetWaitMs;
+    private final double highUtilization;
+    private final double lowUtilization;
+    private final int growStep;
+    private final int shrinkAfterIntervals;
+    private final long intervalNanos;
+
+    private HikariDataSource hikari;
+
+    // 以下状态只由调度线程访问
+    private Histogram waitHistogram;
+    private long lastTimeouts;
+    private long intervalStart = System.nanoTime();
+    private int samples;
+    private double utilizationSum;
+    private double peakUtilization;
+    private int quietIntervals;
+    private volatile double lastWaitP99Ms;
+    private volatile double lastUtilization;
+
+    public PoolAutoTuner(DataSource dataSource, ConnectionAcquireMetrics acquireMetrics, MeterRegistry meterRegistry,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${monitor.database.pool.auto-tune.min-size:2}") int minSize,
+                         @Value("${monitor.database.pool.auto-tune.max-size:50}") int maxSize,
+                         @Value("${monitor.database.pool.auto-tune.target-wait-ms:10}") double targetWaitMs,
+                         @Value("${monitor.database.pool.auto-tune.high-utilization:0.8}") double highUtilization,
+                         @Value("${monitor.database.pool.auto-tune.low-utilization:0.3}") double lowUtilization,
+                         @Value("${monitor.database.pool.auto-tune.grow-step:2}") int growStep,
+                         @Value("${monitor.database.pool.auto-tune.shrink-after-intervals:6}") int shrinkAfterIntervals,
+                         @Value("${monitor.database.pool.auto-tune.interval-ms:10000}") long intervalMs) {
+        this.dataSource = dataSource;
+        this.acquireMetrics = acquireMetrics;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.targetWaitMs = targetWaitMs;
+        this.highUtilization = highUtilization;
+        this.lowUtilization = lowUtilization;
+        this.growStep = Math.max(1, growStep);
+        this.shrinkAfterIntervals = Math.max(1, shrinkAfterIntervals);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                hikari = dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.warn("获取Hikari数据源失败", e);
+        }
+        if (hikari == null) {
+            log.warn("数据源不是Hikari连接池，连接池自动调整不生效");
+            return;
+        }
+
+        Gauge.builder("db.pool.max.size", hikari, HikariDataSource::getMaximumPoolSize)
+             .description("自动调整后的连接池最大连接数")
+             .tag("pool", poolName())
+             .register(meterRegistry);
+        TimeGauge.builder("db.pool.tuner.acquire.wait.p99", this, TimeUnit.MILLISECONDS, tuner -> tuner.lastWaitP99Ms)
+                 .description("最近一个决策区间内获取连接等待的p99")
+                 .tag("pool", poolName())
+                 .register(meterRegistry);
+        Gauge.builder("db.pool.tuner.utilization", this, tuner -> tuner.lastUtilization)
+             .description("最近一个决策区间内活跃连接占最大连接数的平均比例")
+             .tag("pool", poolName())
+             .register(meterRegistry);
+        log.info("连接池自动调整已启用，最大连接数范围 {}~{}，目标等待 {}ms", minSize, maxSize, targetWaitMs);
+    }
+
+    @Scheduled(fixedDelayString = "${monitor.database.pool.auto-tune.sample-interval-ms:1000}")
+    public void sample() {
+        if (hikari == null) {
+            return;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            // 连接池在第一次获取连接时才启动
+            return;
+        }
+        int currentMax = hikari.getMaximumPoolSize();
+        double utilization = (double) pool.getActiveConnections() / currentMax;
+        samples++;
+        utilizationSum += utilization;
+        peakUtilization = Math.max(peakUtilization, utilization);
+
+        long now = System.nanoTime();
+        if (now - intervalStart >= intervalNanos) {
+            decide(pool, currentMax);
+            intervalStart = now;
+            samples = 0;
+            utilizationSum = 0;
+            peakUtilization = 0;
+        }
+    }
+
+    private void decide(HikariPoolMXBean pool, int currentMax) {
+        waitHistogram = acquireMetrics.intervalHistogram(waitHistogram);
+        double waitP99Ms = waitHistogram.getTotalCount() > 0 ? waitHistogram.getValueAtPercentile(99) / 1000.0 : 0;
+        long timeouts = acquireMetrics.getTimeouts();
+        long newTimeouts = timeouts - lastTimeouts;
+        lastTimeouts = timeouts;
+        double averageUtilization = samples > 0 ? utilizationSum / samples : 0;
+        lastWaitP99Ms = waitP99Ms;
+        lastUtilization = averageUtilization;
+
+        // 等待高但连接没有用满时，瓶颈在建立连接或数据库本身，扩容没有帮助
+        boolean saturated = peakUtilization >= highUtilization || pool.getThreadsAwaitingConnection() > 0;
+        if ((newTimeouts > 0 || waitP99Ms > targetWaitMs) && saturated) {
+            quietIntervals = 0;
+            if (currentMax < maxSize) {
+                String reason = newTimeouts > 0 ? "timeout" : "acquire-wait";
+                resize(currentMax, Math.min(maxSize, currentMax + growStep), reason, waitP99Ms, averageUtilization);
+            }
+            return;
+        }
+
+        if (newTimeouts == 0 && waitP99Ms <= targetWaitMs / 2 && averageUtilization < lowUtilization) {
+            quietIntervals++;
+        } else {
+            quietIntervals = 0;
+        }
+        if (quietIntervals >= shrinkAfterIntervals && currentMax > minSize) {
+            quietIntervals = 0;
+            resize(currentMax, currentMax - 1, "low-utilization", waitP99Ms, averageUtilization);
+        }
+    }
+
+    private void resize(int previousSize, int newSize, String reason, double waitP99Ms, double utilization) {
+        HikariConfigMXBean config = hikari.getHikariConfigMXBean();
+        config.setMaximumPoolSize(newSize);
+        // 最小空闲数不能超过最大连接数，否则多出的空闲连接不会被回收
+        if (config.getMinimumIdle() > newSize) {
+            config.setMinimumIdle(newSize);
+        }
+
+        String direction = newSize > previousSize ? "grow" : "shrink";
+        Counter.builder("db.pool.resizes")
+               .description("连接池自动调整最大连接数的次数")
+               .tag("pool", poolName())
+               .tag("direction", direction)
+               .tag("reason", reason)
+               .register(meterRegistry)
+               .increment();
+        log.info("连接池 {} 最大连接数 {} -> {}（{}，等待p99 {}ms，平均占用 {}%）", poolName(), previousSize, newSize, reason,
+                String.format("%.1f", waitP99Ms), String.format("%.0f", utilization * 100));
+        eventPublisher.publishEvent(new PoolResizeEvent(this, poolName(), previousSize, newSize, reason, waitP99Ms, utilization));
+    }
+
+    private String poolName() {
+        return hikari.getPoolName() != null ? hikari.getPoolName() : "default";
+    }
+}
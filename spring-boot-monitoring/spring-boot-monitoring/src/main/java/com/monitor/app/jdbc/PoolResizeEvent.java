@@ -0,0 +1,51 @@
+package com.monitor.app.jdbc;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 连接池自动调整修改最大连接数时发布的事件
+ */
+public class PoolResizeEvent extends ApplicationEvent {
+
+    private final String poolName;
+    private final int previousSize;
+    private final int newSize;
+    private final String reason;
+    private final double acquireWaitP99Ms;
+    private final double utilization;
+
+    public PoolResizeEvent(Object source, String poolName, int previousSize, int newSize, String reason,
+                           double acquireWaitP99Ms, double utilization) {
+        super(source);
+        this.poolName = poolName;
+        this.previousSize = previousSize;
+        this.newSize = newSize;
+        this.reason = reason;
+        this.acquireWaitP99Ms = acquireWaitP99Ms;
+        this.utilization = utilization;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getPreviousSize() {
+        return previousSize;
+    }
+
+    public int getNewSize() {
+        return newSize;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public double getAcquireWaitP99Ms() {
+        return acquireWaitP99Ms;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+}
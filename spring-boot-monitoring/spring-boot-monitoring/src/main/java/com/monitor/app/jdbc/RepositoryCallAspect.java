@@ -0,0 +1,42 @@
+package com.monitor.app.jdbc;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 标记当前线程正在执行的Repository方法，SQL耗时据此归到LogRepository.findAll这样的调用上
+ */
+@Aspect
+public class RepositoryCallAspect {
+
+    // Repository代理类到业务接口名称的缓存
+    private final ConcurrentMap<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object trackRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), RepositoryCallAspect::repositoryName);
+        String previous = JdbcStatementMetrics.enterRepository(repository + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            JdbcStatementMetrics.exitRepository(previous);
+        }
+    }
+
+    /**
+     * 取代理实现的第一个非Spring Data自带的Repository接口
+     */
+    private static String repositoryName(Class<?> proxyClass) {
+        for (Class<?> type : proxyClass.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxyClass.getSimpleName();
+    }
+}
@@ -0,0 +1,25 @@
+package com.monitor.app.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/slowqueries：最近的慢查询日志
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final JdbcStatementMetrics jdbcStatementMetrics;
+
+    public SlowQueryEndpoint(JdbcStatementMetrics jdbcStatementMetrics) {
+        this.jdbcStatementMetrics = jdbcStatementMetrics;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> slowQueries() {
+        return jdbcStatementMetrics.getSlowQueries();
+    }
+}
@@ -7,8 +7,15 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 @Aspect
@@ -16,15 +23,26 @@ import java.util.concurrent.TimeUnit;
 public class ApiMetricsAspect {
 
     private final MeterRegistry meterRegistry;
-    
-    public ApiMetricsAspect(MeterRegistry meterRegistry) {
+    private final boolean meterCacheEnabled;
+    private final LatencyWindows latencyWindows;
+    private final SlowRequestRecorder slowRequests;
+    // 按目标类和方法缓存已注册的指标，避免每次请求都重新构建和查找
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, ApiMeters>> meterCache = new ConcurrentHashMap<>();
+
+    public ApiMetricsAspect(MeterRegistry meterRegistry,
+                            @Value("${monitor.api.meter-cache.enabled:true}") boolean meterCacheEnabled,
+                            LatencyWindows latencyWindows,
+                            SlowRequestRecorder slowRequests) {
         this.meterRegistry = meterRegistry;
+        this.meterCacheEnabled = meterCacheEnabled;
+        this.latencyWindows = latencyWindows;
+        this.slowRequests = slowRequests;
     }
-    
+
     @Pointcut("@within(org.springframework.web.bind.annotation.RestController)")
     public void restControllerPointcut() {
     }
-    
+
     @Pointcut("@annotation(org.springframework.web.bind.annotation.GetMapping) || " +
               "@annotation(org.springframework.web.bind.annotation.PostMapping) || " +
               "@annotation(org.springframework.web.bind.annotation.PutMapping) || " +
@@ -32,26 +50,75 @@ public class ApiMetricsAspect {
               "@annotation(org.springframework.web.bind.annotation.RequestMapping)")
     public void requestMappingPointcut() {
     }
-    
+
     @Around("restControllerPointcut() && requestMappingPointcut()")
     public Object measureApiPerformance(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!meterCacheEnabled) {
+            return measureUncached(joinPoint);
+        }
+
+        ApiMeters meters = resolveMeters(joinPoint);
+        meters.calls.increment();
+
+        long start = System.nanoTime();
+        SlowRequestRecorder.RequestSlot slot = slowRequests.begin(meters.apiName, joinPoint, start);
+        boolean async = false;
+        Throwable failure = null;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof CompletionStage) {
+                // 异步返回的接口在任务完成时才记录耗时和错误，调用栈由执行任务的线程继续采集
+                async = true;
+                SlowRequestRecorder.AsyncRequest asyncRequest = slot != null ? slowRequests.detachAsync(slot) : null;
+                ((CompletionStage<?>) result).whenComplete((value, error) -> {
+                    Throwable cause = error != null ? unwrap(error) : null;
+                    if (cause != null) {
+                        meters.errorCounter(cause.getClass()).increment();
+                    }
+                    long duration = System.nanoTime() - start;
+                    meters.record(duration);
+                    if (asyncRequest != null) {
+                        slowRequests.complete(meters.apiName, joinPoint, duration, cause, asyncRequest.samples());
+                    }
+                });
+            }
+            return result;
+        } catch (Exception e) {
+            meters.errorCounter(e.getClass()).increment();
+            failure = e;
+            throw e;
+        } finally {
+            if (!async) {
+                long duration = System.nanoTime() - start;
+                meters.record(duration);
+                if (slot != null) {
+                    slowRequests.complete(meters.apiName, joinPoint, duration, failure, slowRequests.detach(slot));
+                }
+            }
+        }
+    }
+
+    /**
+     * 未启用缓存时的原始实现，每次调用都构建并注册指标，保留用于对比
+     */
+    private Object measureUncached(ProceedingJoinPoint joinPoint) throws Throwable {
         String className = joinPoint.getTarget().getClass().getSimpleName();
         String methodName = joinPoint.getSignature().getName();
         String apiName = className + "." + methodName;
-        
+
         // 计数器：API调用次数
         Counter.builder("api.calls")
                .tag("api", apiName)
                .description("API调用次数")
                .register(meterRegistry)
                .increment();
-        
+
         // 计时器：API响应时间
         Timer timer = Timer.builder("api.response.time")
                           .tag("api", apiName)
                           .description("API响应时间")
                           .register(meterRegistry);
-        
+
         long start = System.nanoTime();
         try {
             return joinPoint.proceed();
@@ -67,6 +134,79 @@ public class ApiMetricsAspect {
         } finally {
             long duration = System.nanoTime() - start;
             timer.record(duration, TimeUnit.NANOSECONDS);
+            LatencyWindows.EndpointWindow window = latencyWindows.window(apiName);
+            if (window != null) {
+                window.record(duration);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private ApiMeters resolveMeters(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+        ConcurrentMap<Method, ApiMeters> methods = meterCache.get(targetClass);
+        if (methods == null) {
+            methods = meterCache.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        }
+        ApiMeters meters = methods.get(method);
+        if (meters == null) {
+            meters = methods.computeIfAbsent(method,
+                    key -> new ApiMeters(targetClass.getSimpleName() + "." + key.getName()));
+        }
+        return meters;
+    }
+
+    /**
+     * 单个API对应的已注册指标
+     */
+    private final class ApiMeters {
+
+        private final String apiName;
+        private final Counter calls;
+        private final Timer responseTime;
+        // 滑动窗口分位数，未启用时为null
+        private final LatencyWindows.EndpointWindow window;
+        private final ConcurrentMap<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+        private ApiMeters(String apiName) {
+            this.apiName = apiName;
+            this.calls = Counter.builder("api.calls")
+                                .tag("api", apiName)
+                                .description("API调用次数")
+                                .register(meterRegistry);
+            this.responseTime = Timer.builder("api.response.time")
+                                     .tag("api", apiName)
+                                     .description("API响应时间")
+                                     .register(meterRegistry);
+            this.window = latencyWindows.window(apiName);
+        }
+
+        private void record(long durationNanos) {
+            responseTime.record(durationNanos, TimeUnit.NANOSECONDS);
+            if (window != null) {
+                window.record(durationNanos);
+            }
+        }
+
+        private Counter errorCounter(Class<?> exceptionType) {
+            Counter counter = errors.get(exceptionType);
+            if (counter == null) {
+                counter = errors.computeIfAbsent(exceptionType,
+                        type -> Counter.builder("api.errors")
+                                       .tag("api", apiName)
+                                       .tag("exception", type.getSimpleName())
+                                       .description("API错误次数")
+                                       .register(meterRegistry));
+            }
+            return counter;
         }
     }
 }
@@ -3,9 +3,16 @@ package com.monitor.app.metrics;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 自定义业务指标监控
@@ -14,77 +21,104 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Component
 public class BusinessMetrics {
 
+    private static final String OTHER_TYPE = "other";
+
     private final MeterRegistry meterRegistry;
-    private final AtomicInteger activeUsers = new AtomicInteger(0);
-    private final AtomicInteger pendingTasks = new AtomicInteger(0);
+    // 高频增减的计数使用分段累加器，避免多线程竞争同一个原子变量
+    private final LongAdder activeUsers = new LongAdder();
+    private final LongAdder pendingTasks = new LongAdder();
     private final AtomicInteger systemStatus = new AtomicInteger(1); // 1=正常, 0=异常
 
-    public BusinessMetrics(MeterRegistry meterRegistry) {
+    // 预先注册的操作计数器：内置类型按枚举下标访问，配置的类型在启动后只读
+    private final Counter[] builtinOperations = new Counter[OperationType.values().length];
+    private final Map<String, Counter> configuredOperations;
+    // 运行时出现的未知类型，数量受maxDynamicTypes限制，超出后归入other
+    private final ConcurrentMap<String, Counter> dynamicOperations = new ConcurrentHashMap<>();
+    // 已占用的动态类型名额，在computeIfAbsent内用CAS占用，并发出现的新类型也不会超过上限
+    private final AtomicInteger dynamicTypeCount = new AtomicInteger();
+    private final int maxDynamicTypes;
+    private final Counter otherOperations;
+
+    public BusinessMetrics(MeterRegistry meterRegistry,
+                           @Value("${monitor.business.operation-types:}") String[] operationTypes,
+                           @Value("${monitor.business.max-dynamic-types:20}") int maxDynamicTypes) {
         this.meterRegistry = meterRegistry;
+        this.maxDynamicTypes = maxDynamicTypes;
         registerBusinessMetrics();
+
+        Map<String, Counter> configured = new HashMap<>();
+        for (OperationType type : OperationType.values()) {
+            configured.put(type.getTagValue(), builtinOperations[type.ordinal()]);
+        }
+        for (String type : operationTypes) {
+            String tagValue = type.trim();
+            if (!tagValue.isEmpty() && !configured.containsKey(tagValue)) {
+                configured.put(tagValue, operationCounter(tagValue));
+            }
+        }
+        this.configuredOperations = Collections.unmodifiableMap(configured);
+        this.otherOperations = operationCounter(OTHER_TYPE);
     }
 
     private void registerBusinessMetrics() {
         // 活跃用户数
-        Gauge.builder("business.users.active", activeUsers, AtomicInteger::get)
+        Gauge.builder("business.users.active", activeUsers, LongAdder::sum)
              .description("当前活跃用户数")
              .register(meterRegistry);
-        
+
         // 待处理任务数
-        Gauge.builder("business.tasks.pending", pendingTasks, AtomicInteger::get)
+        Gauge.builder("business.tasks.pending", pendingTasks, LongAdder::sum)
              .description("待处理任务数")
              .register(meterRegistry);
-        
+
         // 系统状态
         Gauge.builder("business.system.status", systemStatus, AtomicInteger::get)
              .description("系统状态: 1=正常, 0=异常")
              .register(meterRegistry);
-        
+
         // 业务操作计数器
-        Counter.builder("business.operations")
-               .tag("type", "login")
-               .description("业务操作计数")
-               .register(meterRegistry);
-        
-        Counter.builder("business.operations")
-               .tag("type", "logout")
-               .description("业务操作计数")
-               .register(meterRegistry);
-        
-        Counter.builder("business.operations")
-               .tag("type", "transaction")
-               .description("业务操作计数")
-               .register(meterRegistry);
-    }
-
-    // 更新活跃用户数
+        for (OperationType type : OperationType.values()) {
+            builtinOperations[type.ordinal()] = operationCounter(type.getTagValue());
+        }
+    }
+
+    private Counter operationCounter(String type) {
+        return Counter.builder("business.operations")
+                      .tag("type", type)
+                      .description("业务操作计数")
+                      .register(meterRegistry);
+    }
+
+    // 更新活跃用户数，与并发的增减操作之间不保证原子性
     public void setActiveUsers(int count) {
-        activeUsers.set(count);
+        activeUsers.reset();
+        activeUsers.add(count);
     }
 
     // 增加活跃用户数
     public void incrementActiveUsers() {
-        activeUsers.incrementAndGet();
+        activeUsers.increment();
     }
 
     // 减少活跃用户数
     public void decrementActiveUsers() {
-        activeUsers.decrementAndGet();
+        activeUsers.decrement();
     }
 
-    // 更新待处理任务数
+    // 更新待处理任务数，与并发的增减操作之间不保证原子性
     public void setPendingTasks(int count) {
-        pendingTasks.set(count);
+        pendingTasks.reset();
+        pendingTasks.add(count);
     }
 
     // 增加待处理任务
     public void incrementPendingTasks() {
-        pendingTasks.incrementAndGet();
+        pendingTasks.increment();
     }
 
     // 减少待处理任务
     public void decrementPendingTasks() {
-        pendingTasks.decrementAndGet();
+        pendingTasks.decrement();
     }
 
     // 设置系统状态
@@ -94,25 +128,94 @@ public class BusinessMetrics {
 
     // 记录登录操作
     public void recordLogin() {
-        Counter.builder("business.operations")
-               .tag("type", "login")
-               .register(meterRegistry)
-               .increment();
+        recordOperation(OperationType.LOGIN, 1);
     }
 
     // 记录登出操作
     public void recordLogout() {
-        Counter.builder("business.operations")
-               .tag("type", "logout")
-               .register(meterRegistry)
-               .increment();
+        recordOperation(OperationType.LOGOUT, 1);
     }
 
     // 记录交易操作
     public void recordTransaction() {
-        Counter.builder("business.operations")
-               .tag("type", "transaction")
-               .register(meterRegistry)
-               .increment();
+        recordOperation(OperationType.TRANSACTION, 1);
+    }
+
+    /**
+     * 记录内置类型的业务操作
+     */
+    public void recordOperation(OperationType type, double amount) {
+        builtinOperations[type.ordinal()].increment(amount);
+    }
+
+    /**
+     * 记录任意类型的业务操作
+     * 内置和配置的类型直接使用预注册的计数器，未知类型按需注册，超过上限后计入other
+     */
+    public void recordOperation(String type, double amount) {
+        operation(type).increment(amount);
+    }
+
+    /**
+     * 创建批量记录器，适合在单个线程内高频记录后统一提交
+     */
+    public OperationBatch newBatch() {
+        return new OperationBatch();
+    }
+
+    private Counter operation(String type) {
+        Counter counter = configuredOperations.get(type);
+        if (counter != null) {
+            return counter;
+        }
+        counter = dynamicOperations.get(type);
+        if (counter != null) {
+            return counter;
+        }
+        if (dynamicTypeCount.get() >= maxDynamicTypes) {
+            return otherOperations;
+        }
+        // 映射函数返回null时不插入，名额用完的类型计入other
+        counter = dynamicOperations.computeIfAbsent(type, key -> reserveDynamicType() ? operationCounter(key) : null);
+        return counter != null ? counter : otherOperations;
+    }
+
+    private boolean reserveDynamicType() {
+        int count;
+        do {
+            count = dynamicTypeCount.get();
+            if (count >= maxDynamicTypes) {
+                return false;
+            }
+        } while (!dynamicTypeCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * 业务操作批量记录器，非线程安全
+     * 在本地累加各类型的数量，flush时每种类型只更新一次计数器
+     */
+    public final class OperationBatch {
+
+        private final Map<String, double[]> pending = new HashMap<>();
+
+        public OperationBatch add(String type, double amount) {
+            pending.computeIfAbsent(type, key -> new double[1])[0] += amount;
+            return this;
+        }
+
+        public OperationBatch add(OperationType type, double amount) {
+            return add(type.getTagValue(), amount);
+        }
+
+        public void flush() {
+            for (Map.Entry<String, double[]> entry : pending.entrySet()) {
+                double amount = entry.getValue()[0];
+                if (amount != 0) {
+                    operation(entry.getKey()).increment(amount);
+                    entry.getValue()[0] = 0;
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,34 @@
+package com.monitor.app.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.TextOutputFormat;
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
+
+/**
+ * 使用PrometheusScrapeCache的/actuator/prometheus端点
+ * 按指标名过滤的请求(includedNames)不走缓存
+ */
+public class CachedPrometheusScrapeEndpoint extends PrometheusScrapeEndpoint {
+
+    private final PrometheusScrapeCache scrapeCache;
+
+    public CachedPrometheusScrapeEndpoint(CollectorRegistry collectorRegistry, PrometheusScrapeCache scrapeCache) {
+        super(collectorRegistry);
+        this.scrapeCache = scrapeCache;
+    }
+
+    @Override
+    @ReadOperation(producesFrom = TextOutputFormat.class)
+    public WebEndpointResponse<String> scrape(TextOutputFormat format, @Nullable Set<String> includedNames) {
+        if (includedNames != null) {
+            return super.scrape(format, includedNames);
+        }
+        boolean openMetrics = format == TextOutputFormat.CONTENT_TYPE_OPENMETRICS_100;
+        return new WebEndpointResponse<>(scrapeCache.getText(openMetrics), format);
+    }
+}
@@ -1,10 +1,12 @@
 package com.monitor.app.metrics;
 
+import com.monitor.app.startup.DeferredInitializer;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadata;
 import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -17,52 +19,67 @@ public class DatabaseMetrics {
     private final MeterRegistry meterRegistry;
     private final DataSource dataSource;
     private final Collection<DataSourcePoolMetadataProvider> metadataProviders;
+    private final DeferredInitializer deferredInitializer;
 
     @Autowired
     public DatabaseMetrics(MeterRegistry meterRegistry, 
                           DataSource dataSource,
-                          Collection<DataSourcePoolMetadataProvider> metadataProviders) {
+                          Collection<DataSourcePoolMetadataProvider> metadataProviders,
+                          DeferredInitializer deferredInitializer) {
         this.meterRegistry = meterRegistry;
         this.dataSource = dataSource;
         this.metadataProviders = metadataProviders;
+        this.deferredInitializer = deferredInitializer;
     }
 
     @PostConstruct
     public void init() {
-        registerDataSourceMetrics();
+        // 可选指标，faststart模式下在应用就绪后注册
+        deferredInitializer.submit("database-metrics", this::registerDataSourceMetrics);
     }
 
     private void registerDataSourceMetrics() {
         DataSourcePoolMetadata metadata = getDataSourceMetadata();
         if (metadata != null) {
+            String dataSourceName = unwrap(dataSource).getClass().getSimpleName();
+
             // 活跃连接数
             Gauge.builder("db.connections.active", metadata, DataSourcePoolMetadata::getActive)
                  .description("当前活跃数据库连接数")
-                 .tag("datasource", dataSource.getClass().getSimpleName())
+                 .tag("datasource", dataSourceName)
                  .register(meterRegistry);
             
             // 最大连接数
             Gauge.builder("db.connections.max", metadata, DataSourcePoolMetadata::getMax)
                  .description("最大数据库连接数")
-                 .tag("datasource", dataSource.getClass().getSimpleName())
+                 .tag("datasource", dataSourceName)
                  .register(meterRegistry);
             
             // 最小连接数
             Gauge.builder("db.connections.min", metadata, DataSourcePoolMetadata::getMin)
                  .description("最小数据库连接数")
-                 .tag("datasource", dataSource.getClass().getSimpleName())
+                 .tag("datasource", dataSourceName)
                  .register(meterRegistry);
             
             // 空闲连接数
             if (metadata.getIdle() != null) {
                 Gauge.builder("db.connections.idle", metadata, DataSourcePoolMetadata::getIdle)
                      .description("空闲数据库连接数")
-                     .tag("datasource", dataSource.getClass().getSimpleName())
+                     .tag("datasource", dataSourceName)
                      .register(meterRegistry);
             }
         }
     }
 
+    // 数据源可能被InstrumentedDataSource包装，标签使用实际连接池的类名
+    private static DataSource unwrap(DataSource dataSource) {
+        DataSource current = dataSource;
+        while (current instanceof DelegatingDataSource && ((DelegatingDataSource) current).getTargetDataSource() != null) {
+            current = ((DelegatingDataSource) current).getTargetDataSource();
+        }
+        return current;
+    }
+
     private DataSourcePoolMetadata getDataSourceMetadata() {
         for (DataSourcePoolMetadataProvider provider : metadataProviders) {
             DataSourcePoolMetadata metadata = provider.getDataSourcePoolMetadata(dataSource);
@@ -0,0 +1,240 @@
+package com.monitor.app.metrics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于GC通知的垃圾回收指标
+ * 每次GC结束时记录按收集器和原因区分的停顿时长直方图、本周期的分配量和晋升量，以及各内存池GC后的存活数据量。
+ * 并发收集器（G1并发周期、ZGC、Shenandoah等）的并发阶段不停顿应用线程，单独记为jvm.gc.collector.concurrent，不计入停顿
+ */
+@Slf4j
+@Component
+public class GcMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final List<Runnable> unregisters = new ArrayList<>();
+    private final ConcurrentMap<String, Timer> pauseTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> concurrentTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> liveBytes = new ConcurrentHashMap<>();
+    private final DistributionSummary allocatedSummary;
+    private final DistributionSummary promotedSummary;
+
+    private final String youngPool;
+    private final String oldPool;
+    // 上次GC结束时年轻代的使用量，用于计算两次GC之间的分配量
+    private final AtomicLong youngUsageAfterLastGc = new AtomicLong();
+
+    public GcMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.allocatedSummary = DistributionSummary.builder("jvm.gc.cycle.allocated")
+                                                   .description("两次GC之间年轻代的内存分配量")
+                                                   .baseUnit("bytes")
+                                                   .register(meterRegistry);
+        this.promotedSummary = DistributionSummary.builder("jvm.gc.cycle.promoted")
+                                                  .description("单次GC晋升到老年代的内存量")
+                                                  .baseUnit("bytes")
+                                                  .register(meterRegistry);
+
+        String young = null;
+        String old = null;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            String name = pool.getName();
+            if (isYoungPool(name)) {
+                young = name;
+            } else if (isOldPool(name)) {
+                old = name;
+            }
+        }
+        this.youngPool = young;
+        this.oldPool = old;
+    }
+
+    @PostConstruct
+    public void init() {
+        NotificationListener listener = this::handleNotification;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gcBean instanceof NotificationEmitter)) {
+                continue;
+            }
+            NotificationEmitter emitter = (NotificationEmitter) gcBean;
+            emitter.addNotificationListener(listener, notification ->
+                    GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()), null);
+            unregisters.add(() -> {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (ListenerNotFoundException ignored) {
+                    // 已移除
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unregisters.forEach(Runnable::run);
+        unregisters.clear();
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+
+        Map<String, MemoryUsage> after = gcInfo.getMemoryUsageAfterGc();
+        if (isConcurrentPhase(info.getGcName(), info.getGcCause())) {
+            concurrentTimer(info.getGcName(), info.getGcAction(), info.getGcCause())
+                    .record(gcInfo.getDuration(), TimeUnit.MILLISECONDS);
+            // 并发阶段不是一次年轻代回收，不计算分配量和晋升量，只更新存活数据量
+            updateLiveBytes(after);
+            return;
+        }
+
+        // 停顿时长，按收集器、动作和原因区分
+        pauseTimer(info.getGcName(), info.getGcAction(), info.getGcCause())
+                .record(gcInfo.getDuration(), TimeUnit.MILLISECONDS);
+
+        Map<String, MemoryUsage> before = gcInfo.getMemoryUsageBeforeGc();
+
+        // 分配量：本次GC前年轻代使用量减去上次GC后的使用量
+        if (youngPool != null && before.containsKey(youngPool) && after.containsKey(youngPool)) {
+            long youngBefore = before.get(youngPool).getUsed();
+            long youngAfter = after.get(youngPool).getUsed();
+            long allocated = youngBefore - youngUsageAfterLastGc.getAndSet(youngAfter);
+            if (allocated > 0) {
+                allocatedSummary.record(allocated);
+            }
+        }
+
+        // 晋升量：老年代在本次GC中的增长
+        if (oldPool != null && before.containsKey(oldPool) && after.containsKey(oldPool)) {
+            long promoted = after.get(oldPool).getUsed() - before.get(oldPool).getUsed();
+            if (promoted > 0) {
+                promotedSummary.record(promoted);
+            }
+        }
+
+        updateLiveBytes(after);
+
+        if (log.isDebugEnabled()) {
+            log.debug("GC {} ({}) 停顿 {}ms", info.getGcName(), info.getGcCause(), gcInfo.getDuration());
+        }
+    }
+
+    /**
+     * GC后各堆内存池的存活数据量
+     */
+    private void updateLiveBytes(Map<String, MemoryUsage> after) {
+        for (Map.Entry<String, MemoryUsage> entry : after.entrySet()) {
+            AtomicLong live = liveBytes.get(entry.getKey());
+            if (live == null) {
+                if (!isHeapPool(entry.getKey())) {
+                    continue;
+                }
+                live = liveBytes.computeIfAbsent(entry.getKey(), this::registerLiveGauge);
+            }
+            live.set(entry.getValue().getUsed());
+        }
+    }
+
+    private Timer pauseTimer(String gcName, String action, String cause) {
+        String key = gcName + '|' + action + '|' + cause;
+        Timer timer = pauseTimers.get(key);
+        if (timer == null) {
+            timer = pauseTimers.computeIfAbsent(key, k -> Timer.builder("jvm.gc.collector.pause")
+                                                               .description("GC停顿时长")
+                                                               .tag("gc", gcName)
+                                                               .tag("action", action)
+                                                               .tag("cause", cause)
+                                                               .publishPercentileHistogram()
+                                                               .minimumExpectedValue(Duration.ofMillis(1))
+                                                               .maximumExpectedValue(Duration.ofSeconds(10))
+                                                               .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    private Timer concurrentTimer(String gcName, String action, String cause) {
+        String key = gcName + '|' + action + '|' + cause;
+        Timer timer = concurrentTimers.get(key);
+        if (timer == null) {
+            timer = concurrentTimers.computeIfAbsent(key, k -> Timer.builder("jvm.gc.collector.concurrent")
+                                                                    .description("GC并发阶段耗时（与应用线程并行执行，不是停顿）")
+                                                                    .tag("gc", gcName)
+                                                                    .tag("action", action)
+                                                                    .tag("cause", cause)
+                                                                    .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    private AtomicLong registerLiveGauge(String pool) {
+        AtomicLong live = new AtomicLong();
+        Gauge.builder("jvm.gc.pool.live", live, AtomicLong::get)
+             .description("GC后内存池的存活数据量")
+             .tag("pool", pool)
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        return live;
+    }
+
+    /**
+     * 与Micrometer的JvmGcMetrics判断方式相同，另外包括JDK 20+的G1并发周期通知
+     */
+    private static boolean isConcurrentPhase(String gcName, String cause) {
+        return "No GC".equals(cause)
+                || "G1 Concurrent GC".equals(gcName)
+                || "Shenandoah Cycles".equals(gcName)
+                || "ZGC Cycles".equals(gcName)
+                || "ZGC Major Cycles".equals(gcName)
+                || "ZGC Minor Cycles".equals(gcName)
+                || (gcName.startsWith("GPGC") && !gcName.endsWith("Pauses"));
+    }
+
+    private static boolean isHeapPool(String name) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals(name)) {
+                return pool.getType() == MemoryType.HEAP;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isYoungPool(String name) {
+        return name.endsWith("Eden Space");
+    }
+
+    private static boolean isOldPool(String name) {
+        return name.endsWith("Old Gen") || name.endsWith("Tenured Gen");
+    }
+}
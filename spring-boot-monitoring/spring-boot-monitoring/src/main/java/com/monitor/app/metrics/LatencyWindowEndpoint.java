@@ -0,0 +1,32 @@
+package com.monitor.app.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/latency：直接从内存返回各API最近1s/10s/60s/5m的延迟分位数和吞吐量，不依赖Prometheus
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyWindowEndpoint {
+
+    private final LatencyWindows latencyWindows;
+
+    public LatencyWindowEndpoint(LatencyWindows latencyWindows) {
+        this.latencyWindows = latencyWindows;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        return latencyWindows.snapshot();
+    }
+
+    @ReadOperation
+    public Map<String, Object> api(@Selector String api) {
+        return latencyWindows.snapshot(api);
+    }
+}
@@ -0,0 +1,193 @@
+package com.monitor.app.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内的滑动窗口延迟分位数
+ * 每个API一个HdrHistogram记录器，请求线程无锁写入；按1秒、10秒、60秒粒度分别保存最近的直方图，
+ * 查询时合并对应的槽位得到1s/10s/60s/5m窗口的分位数和吞吐量。每个API的槽位数量固定，接口数量受maxEndpoints限制。
+ * 槽位按nanoTime经过的整秒数推进，与定时任务的调用次数无关：调度延迟时一次补齐错过的秒数（期间的数据计入最近一秒），
+ * 追赶执行的多余调用不做任何事
+ */
+@Component
+public class LatencyWindows {
+
+    // 分位数精度：2位有效数字
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int SECOND_SLOTS = 10;
+    private static final int TEN_SECOND_SLOTS = 6;
+    private static final int MINUTE_SLOTS = 5;
+
+    private final boolean enabled;
+    private final int maxEndpoints;
+    private final long highestTrackableMicros;
+    private final ConcurrentMap<String, EndpointWindow> endpoints = new ConcurrentHashMap<>();
+
+    public LatencyWindows(@Value("${monitor.api.latency-windows.enabled:true}") boolean enabled,
+                          @Value("${monitor.api.latency-windows.max-endpoints:100}") int maxEndpoints,
+                          @Value("${monitor.api.latency-windows.highest-trackable-ms:60000}") long highestTrackableMs) {
+        this.enabled = enabled;
+        this.maxEndpoints = maxEndpoints;
+        this.highestTrackableMicros = TimeUnit.MILLISECONDS.toMicros(highestTrackableMs);
+    }
+
+    /**
+     * 获取API对应的窗口，未启用或接口数量已达上限时返回null
+     */
+    public EndpointWindow window(String apiName) {
+        if (!enabled) {
+            return null;
+        }
+        EndpointWindow window = endpoints.get(apiName);
+        if (window == null && endpoints.size() < maxEndpoints) {
+            window = endpoints.computeIfAbsent(apiName, key -> new EndpointWindow());
+        }
+        return window;
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void rotate() {
+        long now = System.nanoTime();
+        for (EndpointWindow window : endpoints.values()) {
+            window.rotate(now);
+        }
+    }
+
+    /**
+     * 全部API的窗口统计，按API名称排序
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, EndpointWindow> entry : endpoints.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * 单个API的窗口统计，不存在时返回null
+     */
+    public Map<String, Object> snapshot(String apiName) {
+        EndpointWindow window = endpoints.get(apiName);
+        return window != null ? window.snapshot() : null;
+    }
+
+    /**
+     * 单个API的延迟窗口
+     * 写入只经过Recorder，轮转和查询在同一把锁内进行，不影响请求线程
+     */
+    public final class EndpointWindow {
+
+        private static final long SECOND_NANOS = 1_000_000_000L;
+        private static final int TOTAL_SECONDS = SECOND_SLOTS * TEN_SECOND_SLOTS * MINUTE_SLOTS;
+
+        private final long startNanos = System.nanoTime();
+        private final Recorder recorder = new Recorder(1, highestTrackableMicros, SIGNIFICANT_DIGITS);
+        private final Histogram[] seconds = newSlots(SECOND_SLOTS);
+        private final Histogram[] tenSeconds = newSlots(TEN_SECOND_SLOTS);
+        private final Histogram[] minutes = newSlots(MINUTE_SLOTS);
+        private Histogram interval;
+        private long ticks;
+
+        private EndpointWindow() {
+        }
+
+        public void record(long durationNanos) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+            recorder.recordValue(Math.max(1, Math.min(micros, highestTrackableMicros)));
+        }
+
+        private synchronized void rotate(long now) {
+            long target = (now - startNanos) / SECOND_NANOS;
+            if (target <= ticks) {
+                return;
+            }
+            interval = recorder.getIntervalHistogram(interval);
+            // 停顿超过5分钟时所有槽位都会被清空，只需推进最后一轮
+            if (target - ticks > TOTAL_SECONDS) {
+                ticks = target - TOTAL_SECONDS;
+            }
+            while (ticks < target) {
+                ticks++;
+                Histogram second = seconds[(int) (ticks % SECOND_SLOTS)];
+                second.reset();
+                if (ticks == target) {
+                    second.add(interval);
+                }
+
+                // 每10秒把最近10个1秒槽位合并为一个10秒槽位，每60秒把最近6个10秒槽位合并为一个1分钟槽位
+                if (ticks % SECOND_SLOTS == 0) {
+                    merge(tenSeconds[(int) (ticks / SECOND_SLOTS % TEN_SECOND_SLOTS)], seconds);
+                }
+                if (ticks % (SECOND_SLOTS * TEN_SECOND_SLOTS) == 0) {
+                    merge(minutes[(int) (ticks / (SECOND_SLOTS * TEN_SECOND_SLOTS) % MINUTE_SLOTS)], tenSeconds);
+                }
+            }
+        }
+
+        private synchronized Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("1s", stats(seconds[(int) (ticks % SECOND_SLOTS)], Math.min(ticks, 1)));
+            result.put("10s", stats(sum(seconds), Math.min(ticks, SECOND_SLOTS)));
+            long tens = ticks / SECOND_SLOTS;
+            result.put("60s", stats(sum(tenSeconds), Math.min(tens, TEN_SECOND_SLOTS) * SECOND_SLOTS));
+            long mins = ticks / (SECOND_SLOTS * TEN_SECOND_SLOTS);
+            result.put("5m", stats(sum(minutes), Math.min(mins, MINUTE_SLOTS) * SECOND_SLOTS * TEN_SECOND_SLOTS));
+            return result;
+        }
+
+        private void merge(Histogram target, Histogram[] slots) {
+            target.reset();
+            for (Histogram slot : slots) {
+                target.add(slot);
+            }
+        }
+
+        private Histogram sum(Histogram[] slots) {
+            Histogram total = new PackedHistogram(1, highestTrackableMicros, SIGNIFICANT_DIGITS);
+            merge(total, slots);
+            return total;
+        }
+    }
+
+    private Histogram[] newSlots(int count) {
+        // 稀疏存储，内存占用与实际出现的延迟分布有关，上限由可记录范围决定
+        Histogram[] slots = new Histogram[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = new PackedHistogram(1, highestTrackableMicros, SIGNIFICANT_DIGITS);
+        }
+        return slots;
+    }
+
+    /**
+     * 窗口统计结果，延迟单位为毫秒；seconds为窗口实际覆盖的秒数（窗口截止到对应粒度的最近一个边界）
+     */
+    private static Map<String, Object> stats(Histogram histogram, long coveredSeconds) {
+        long count = histogram.getTotalCount();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("seconds", coveredSeconds);
+        stats.put("count", count);
+        stats.put("throughput", coveredSeconds > 0 ? (double) count / coveredSeconds : 0.0);
+        if (count > 0) {
+            stats.put("mean", histogram.getMean() / 1000);
+            stats.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+            stats.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+            stats.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+            stats.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+            stats.put("max", histogram.getMaxValue() / 1000.0);
+        }
+        return stats;
+    }
+}
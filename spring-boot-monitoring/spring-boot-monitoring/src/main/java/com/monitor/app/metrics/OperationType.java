@@ -0,0 +1,21 @@
+package com.monitor.app.metrics;
+
+/**
+ * 内置的业务操作类型，启动时预先注册计数器
+ */
+public enum OperationType {
+
+    LOGIN("login"),
+    LOGOUT("logout"),
+    TRANSACTION("transaction");
+
+    private final String tagValue;
+
+    OperationType(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,155 @@
+package com.monitor.app.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prometheus采集结果缓存
+ * 在配置的时间窗口内只序列化一次指标，窗口内的并发采集共享同一份结果，gzip版本按需生成后同样复用
+ */
+public class PrometheusScrapeCache {
+
+    private final CollectorRegistry collectorRegistry;
+    private final long intervalNanos;
+    private final AtomicReferenceArray<Snapshot> snapshots = new AtomicReferenceArray<>(2);
+
+    private final Timer buildTimer;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private volatile long lastSize;
+    private volatile long lastGzipSize;
+
+    public PrometheusScrapeCache(CollectorRegistry collectorRegistry, MeterRegistry meterRegistry, long intervalMs) {
+        this.collectorRegistry = collectorRegistry;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+
+        this.buildTimer = Timer.builder("prometheus.scrape.build")
+                               .description("Prometheus采集结果序列化耗时")
+                               .register(meterRegistry);
+        this.hitCounter = Counter.builder("prometheus.scrape.requests")
+                                 .tag("cache", "hit")
+                                 .description("Prometheus采集请求数")
+                                 .register(meterRegistry);
+        this.missCounter = Counter.builder("prometheus.scrape.requests")
+                                  .tag("cache", "miss")
+                                  .description("Prometheus采集请求数")
+                                  .register(meterRegistry);
+        Gauge.builder("prometheus.scrape.size", this, cache -> cache.lastSize)
+             .tag("encoding", "identity")
+             .description("最近一次Prometheus采集结果大小")
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        Gauge.builder("prometheus.scrape.size", this, cache -> cache.lastGzipSize)
+             .tag("encoding", "gzip")
+             .description("最近一次Prometheus采集结果大小")
+             .baseUnit("bytes")
+             .register(meterRegistry);
+    }
+
+    /**
+     * 获取指定格式的文本采集结果
+     */
+    public String getText(boolean openMetrics) {
+        return getSnapshot(openMetrics).text;
+    }
+
+    /**
+     * 获取指定格式的gzip压缩采集结果
+     */
+    public byte[] getGzip(boolean openMetrics) {
+        Snapshot snapshot = getSnapshot(openMetrics);
+        byte[] gzip = snapshot.gzip;
+        if (gzip == null) {
+            synchronized (snapshot) {
+                gzip = snapshot.gzip;
+                if (gzip == null) {
+                    gzip = compress(snapshot.bytes);
+                    snapshot.gzip = gzip;
+                    lastGzipSize = gzip.length;
+                }
+            }
+        }
+        return gzip;
+    }
+
+    private Snapshot getSnapshot(boolean openMetrics) {
+        int index = openMetrics ? 1 : 0;
+        Snapshot snapshot = snapshots.get(index);
+        if (snapshot != null && !snapshot.isExpired()) {
+            hitCounter.increment();
+            return snapshot;
+        }
+        synchronized (snapshots) {
+            // 等待锁期间其他线程可能已完成构建
+            snapshot = snapshots.get(index);
+            if (snapshot != null && !snapshot.isExpired()) {
+                hitCounter.increment();
+                return snapshot;
+            }
+            missCounter.increment();
+            snapshot = build(openMetrics);
+            snapshots.set(index, snapshot);
+            lastSize = snapshot.bytes.length;
+            return snapshot;
+        }
+    }
+
+    private Snapshot build(boolean openMetrics) {
+        long start = System.nanoTime();
+        try {
+            String contentType = openMetrics ? TextFormat.CONTENT_TYPE_OPENMETRICS_100 : TextFormat.CONTENT_TYPE_004;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(lastSize > 0 ? (int) lastSize : 16 * 1024);
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            TextFormat.writeFormat(contentType, writer, collectorRegistry.metricFamilySamples());
+            writer.flush();
+            byte[] bytes = out.toByteArray();
+            return new Snapshot(new String(bytes, StandardCharsets.UTF_8), bytes, System.nanoTime() + intervalNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Snapshot {
+
+        private final String text;
+        private final byte[] bytes;
+        private final long expiresAt;
+        private volatile byte[] gzip;
+
+        private Snapshot(String text, byte[] bytes, long expiresAt) {
+            this.text = text;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.monitor.app.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/slowrequests：各接口最近最慢的请求及仍在处理中的慢请求，包含参数摘要、异常和调用栈样本
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestEndpoint {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    public SlowRequestEndpoint(SlowRequestRecorder slowRequestRecorder) {
+        this.slowRequestRecorder = slowRequestRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowRequests() {
+        return slowRequestRecorder.snapshot();
+    }
+
+    @ReadOperation
+    public Map<String, Object> api(@Selector String api) {
+        return slowRequestRecorder.snapshot(api);
+    }
+}
@@ -0,0 +1,438 @@
+package com.monitor.app.metrics;
+
+import org.aspectj.lang.JoinPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 慢请求捕获
+ * 每个处理线程复用一个请求槽位，请求开始和结束时只写入几个字段；超过阈值的请求由采样任务定期抓取处理线程的调用栈，
+ * 结束后按接口保留当前窗口和上一个窗口中最慢的N个请求（方法、参数摘要、耗时、异常和调用栈样本）。
+ * 异步接口的任务通过propagate交给执行线程，执行期间改为抓取执行线程的调用栈。
+ * 参数摘要只包含数字、布尔、枚举、时间和截断后的字符串，其余参数只记录类型
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private static final int MAX_ARG_LENGTH = 100;
+    private static final Comparator<SlowRequest> BY_DURATION = Comparator.comparingLong(SlowRequest::getDurationNanos);
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int topN;
+    private final long windowNanos;
+    private final int maxSamples;
+    private final int maxStackDepth;
+    private final int maxEndpoints;
+
+    private final ThreadLocal<RequestSlot> slots = ThreadLocal.withInitial(this::newSlot);
+    private final ConcurrentLinkedQueue<RequestSlot> allSlots = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<String, SlowRequestBuffer> buffers = new ConcurrentHashMap<>();
+
+    public SlowRequestRecorder(@Value("${monitor.api.slow-request.enabled:true}") boolean enabled,
+                               @Value("${monitor.api.slow-request.threshold-ms:1000}") long thresholdMs,
+                               @Value("${monitor.api.slow-request.top-n:10}") int topN,
+                               @Value("${monitor.api.slow-request.window-seconds:300}") long windowSeconds,
+                               @Value("${monitor.api.slow-request.max-samples:5}") int maxSamples,
+                               @Value("${monitor.api.slow-request.max-stack-depth:30}") int maxStackDepth,
+                               @Value("${monitor.api.slow-request.max-endpoints:100}") int maxEndpoints) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.topN = topN;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.maxSamples = maxSamples;
+        this.maxStackDepth = maxStackDepth;
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    /**
+     * 请求开始，返回当前线程的槽位；未启用或线程上已有进行中的请求（嵌套调用）时返回null
+     */
+    public RequestSlot begin(String apiName, JoinPoint joinPoint, long startNanos) {
+        if (!enabled) {
+            return null;
+        }
+        RequestSlot slot = slots.get();
+        if (slot.apiName != null) {
+            return null;
+        }
+        slot.joinPoint = joinPoint;
+        slot.startNanos = startNanos;
+        slot.apiName = apiName;
+        return slot;
+    }
+
+    /**
+     * 请求在处理线程上结束，清空槽位并返回已采集的调用栈
+     */
+    public List<StackSample> detach(RequestSlot slot) {
+        List<StackSample> samples;
+        synchronized (slot) {
+            slot.apiName = null;
+            slot.joinPoint = null;
+            slot.async = null;
+            samples = slot.samples.isEmpty() ? Collections.emptyList() : new ArrayList<>(slot.samples);
+            slot.samples.clear();
+        }
+        return samples;
+    }
+
+    /**
+     * 异步接口交出处理线程，清空槽位；返回的对象汇总处理线程和执行线程上采集的调用栈
+     */
+    public AsyncRequest detachAsync(RequestSlot slot) {
+        AsyncRequest request;
+        synchronized (slot) {
+            request = slot.async != null ? slot.async : new AsyncRequest();
+        }
+        request.addAll(detach(slot));
+        return request;
+    }
+
+    /**
+     * 当前线程正在处理请求时，包装异步任务使其执行期间在执行线程上继续采样；没有进行中的请求时原样返回
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        if (!enabled) {
+            return task;
+        }
+        RequestSlot origin = slots.get();
+        String apiName;
+        JoinPoint joinPoint;
+        long startNanos;
+        AsyncRequest request;
+        synchronized (origin) {
+            if (origin.apiName == null) {
+                return task;
+            }
+            apiName = origin.apiName;
+            joinPoint = origin.joinPoint;
+            startNanos = origin.startNanos;
+            if (origin.async == null) {
+                origin.async = new AsyncRequest();
+            }
+            request = origin.async;
+        }
+        return () -> {
+            RequestSlot worker = begin(apiName, joinPoint, startNanos);
+            try {
+                return task.get();
+            } finally {
+                if (worker != null) {
+                    request.addAll(detach(worker));
+                }
+            }
+        };
+    }
+
+    /**
+     * 记录已结束的请求，只有超过阈值的请求才会构建参数摘要并进入缓冲区
+     */
+    public void complete(String apiName, JoinPoint joinPoint, long durationNanos, Throwable error, List<StackSample> samples) {
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        SlowRequestBuffer buffer = buffers.get(apiName);
+        if (buffer == null) {
+            if (buffers.size() >= maxEndpoints) {
+                return;
+            }
+            buffer = buffers.computeIfAbsent(apiName, key -> new SlowRequestBuffer());
+        }
+        buffer.add(new SlowRequest(apiName, summarize(joinPoint.getArgs()), durationNanos,
+                error != null ? error.getClass().getName() + ": " + error.getMessage() : null, samples));
+    }
+
+    /**
+     * 对仍在处理且已超过阈值的请求抓取处理线程的调用栈
+     */
+    @Scheduled(fixedRateString = "${monitor.api.slow-request.sample-interval-ms:200}")
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (RequestSlot slot : allSlots) {
+            if (!slot.thread.isAlive()) {
+                allSlots.remove(slot);
+                continue;
+            }
+            if (slot.apiName == null || now - slot.startNanos < thresholdNanos || slot.samples.size() >= maxSamples) {
+                continue;
+            }
+            StackTraceElement[] stack = slot.thread.getStackTrace();
+            synchronized (slot) {
+                // 抓取期间请求可能已经结束
+                if (slot.apiName != null && slot.samples.size() < maxSamples) {
+                    slot.samples.add(new StackSample(TimeUnit.NANOSECONDS.toMillis(now - slot.startNanos),
+                            Arrays.copyOf(stack, Math.min(stack.length, maxStackDepth))));
+                }
+            }
+        }
+    }
+
+    /**
+     * 各接口最慢的请求，以及当前仍在处理中的慢请求
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> completed = new TreeMap<>();
+        for (Map.Entry<String, SlowRequestBuffer> entry : buffers.entrySet()) {
+            completed.put(entry.getKey(), entry.getValue().slowest());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMs", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        result.put("inFlight", inFlight(null));
+        result.put("completed", completed);
+        return result;
+    }
+
+    /**
+     * 单个接口的慢请求，不存在时返回null
+     */
+    public Map<String, Object> snapshot(String apiName) {
+        SlowRequestBuffer buffer = buffers.get(apiName);
+        List<Map<String, Object>> inFlight = inFlight(apiName);
+        if (buffer == null && inFlight.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMs", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        result.put("inFlight", inFlight);
+        result.put("completed", buffer != null ? buffer.slowest() : Collections.emptyList());
+        return result;
+    }
+
+    private List<Map<String, Object>> inFlight(String apiName) {
+        long now = System.nanoTime();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (RequestSlot slot : allSlots) {
+            synchronized (slot) {
+                if (slot.apiName == null || now - slot.startNanos < thresholdNanos
+                        || (apiName != null && !apiName.equals(slot.apiName))) {
+                    continue;
+                }
+                Map<String, Object> request = new LinkedHashMap<>();
+                request.put("api", slot.apiName);
+                request.put("thread", slot.thread.getName());
+                request.put("args", summarize(slot.joinPoint.getArgs()));
+                request.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(now - slot.startNanos));
+                request.put("samples", new ArrayList<>(slot.samples));
+                result.add(request);
+            }
+        }
+        return result;
+    }
+
+    private RequestSlot newSlot() {
+        RequestSlot slot = new RequestSlot(Thread.currentThread());
+        allSlots.add(slot);
+        return slot;
+    }
+
+    /**
+     * 参数摘要通过Actuator端点对外暴露，只输出简单类型的值，其余对象（请求体、Servlet对象等）只输出类型名，
+     * 避免调用任意对象的toString泄露数据或产生开销
+     */
+    static String summarize(Object[] args) {
+        if (args == null || args.length == 0) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Object arg : args) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            if (arg == null) {
+                builder.append("null");
+            } else if (arg instanceof Number || arg instanceof Boolean || arg instanceof Character
+                    || arg instanceof Enum || arg instanceof TemporalAccessor || arg instanceof UUID) {
+                builder.append(arg);
+            } else if (arg instanceof String) {
+                String value = (String) arg;
+                builder.append(value.length() > MAX_ARG_LENGTH ? value.substring(0, MAX_ARG_LENGTH) + "..." : value);
+            } else {
+                builder.append(arg.getClass().getSimpleName());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 处理线程的请求槽位，apiName非空表示线程正在处理请求
+     */
+    public static final class RequestSlot {
+
+        private final Thread thread;
+        private final List<StackSample> samples = new ArrayList<>();
+        private volatile String apiName;
+        private volatile JoinPoint joinPoint;
+        private volatile long startNanos;
+        private AsyncRequest async;
+
+        private RequestSlot(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * 异步接口的一次请求在各线程上采集的调用栈
+     */
+    public final class AsyncRequest {
+
+        private final List<StackSample> samples = new ArrayList<>();
+
+        private AsyncRequest() {
+        }
+
+        synchronized void addAll(List<StackSample> collected) {
+            for (StackSample sample : collected) {
+                if (samples.size() >= maxSamples) {
+                    return;
+                }
+                samples.add(sample);
+            }
+        }
+
+        public synchronized List<StackSample> samples() {
+            if (samples.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<StackSample> result = new ArrayList<>(samples);
+            result.sort(Comparator.comparingLong(StackSample::getOffsetMs));
+            return result;
+        }
+    }
+
+    /**
+     * 调用栈样本，offsetMs为采样时距请求开始的毫秒数
+     */
+    public static final class StackSample {
+
+        private final long offsetMs;
+        private final List<String> stack;
+
+        private StackSample(long offsetMs, StackTraceElement[] elements) {
+            this.offsetMs = offsetMs;
+            List<String> frames = new ArrayList<>(elements.length);
+            for (StackTraceElement element : elements) {
+                frames.add(element.toString());
+            }
+            this.stack = frames;
+        }
+
+        public long getOffsetMs() {
+            return offsetMs;
+        }
+
+        public List<String> getStack() {
+            return stack;
+        }
+    }
+
+    /**
+     * 已结束的慢请求
+     */
+    public static final class SlowRequest {
+
+        private final String api;
+        private final String args;
+        private final long durationNanos;
+        private final String exception;
+        private final Instant finishedAt = Instant.now();
+        private final List<StackSample> samples;
+
+        private SlowRequest(String api, String args, long durationNanos, String exception, List<StackSample> samples) {
+            this.api = api;
+            this.args = args;
+            this.durationNanos = durationNanos;
+            this.exception = exception;
+            this.samples = samples;
+        }
+
+        public String getApi() {
+            return api;
+        }
+
+        public String getArgs() {
+            return args;
+        }
+
+        public double getDurationMs() {
+            return durationNanos / 1_000_000.0;
+        }
+
+        private long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public String getException() {
+            return exception;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        public List<StackSample> getSamples() {
+            return samples;
+        }
+    }
+
+    /**
+     * 单个接口的慢请求缓冲区，分别保留当前窗口和上一个窗口中最慢的topN个请求
+     */
+    private final class SlowRequestBuffer {
+
+        private PriorityQueue<SlowRequest> current = new PriorityQueue<>(BY_DURATION);
+        private List<SlowRequest> previous = Collections.emptyList();
+        private long windowStart = System.nanoTime();
+
+        synchronized void add(SlowRequest request) {
+            rotateIfNeeded();
+            if (current.size() < topN) {
+                current.add(request);
+            } else if (current.peek().getDurationNanos() < request.getDurationNanos()) {
+                current.poll();
+                current.add(request);
+            }
+        }
+
+        synchronized List<SlowRequest> slowest() {
+            rotateIfNeeded();
+            List<SlowRequest> result = new ArrayList<>(current);
+            result.addAll(previous);
+            result.sort(BY_DURATION.reversed());
+            return result.size() > topN ? result.subList(0, topN) : result;
+        }
+
+        private void rotateIfNeeded() {
+            long now = System.nanoTime();
+            if (now - windowStart < windowNanos) {
+                return;
+            }
+            // 超过两个窗口没有新数据时上一个窗口也已过期
+            previous = now - windowStart < 2 * windowNanos ? new ArrayList<>(current) : Collections.emptyList();
+            current = new PriorityQueue<>(BY_DURATION);
+            windowStart = now;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.monitor.app.metrics;
 
+import com.monitor.app.startup.DeferredInitializer;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -15,25 +16,36 @@ import java.lang.management.ThreadMXBean;
 public class SystemMetrics {
 
     private final MeterRegistry meterRegistry;
+    private final DeferredInitializer deferredInitializer;
     private final OperatingSystemMXBean operatingSystemMXBean;
     private final MemoryMXBean memoryMXBean;
     private final ThreadMXBean threadMXBean;
     private final Runtime runtime;
+    private final Counter manualGcCounter;
 
-    public SystemMetrics(MeterRegistry meterRegistry) {
+    public SystemMetrics(MeterRegistry meterRegistry, DeferredInitializer deferredInitializer) {
         this.meterRegistry = meterRegistry;
+        this.deferredInitializer = deferredInitializer;
         this.operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
         this.memoryMXBean = ManagementFactory.getMemoryMXBean();
         this.threadMXBean = ManagementFactory.getThreadMXBean();
         this.runtime = Runtime.getRuntime();
+        // GC计数器由Spring Boot Actuator自动注册，停顿和分配等细节见GcMetrics；手动GC计数器在构造时注册，不随可选指标延迟
+        this.manualGcCounter = Counter.builder("jvm.gc.manual")
+                                      .description("手动GC触发次数")
+                                      .register(meterRegistry);
     }
 
     @PostConstruct
     public void init() {
+        // 可选指标，faststart模式下在应用就绪后注册
+        deferredInitializer.submit("system-metrics", this::registerMetrics);
+    }
+
+    private void registerMetrics() {
         registerCpuMetrics();
         registerMemoryMetrics();
         registerThreadMetrics();
-        registerGcMetrics();
     }
 
     private void registerCpuMetrics() {
@@ -95,19 +107,9 @@ public class SystemMetrics {
              .register(meterRegistry);
     }
 
-    private void registerGcMetrics() {
-        // GC计数器由Spring Boot Actuator自动注册
-        Counter.builder("jvm.gc.manual")
-               .description("手动GC触发次数")
-               .register(meterRegistry);
-    }
-
     // 手动触发GC的方法，可用于测试
     public void performGc() {
         System.gc();
-        Counter.builder("jvm.gc.manual")
-               .description("手动GC触发次数")
-               .register(meterRegistry)
-               .increment();
+        manualGcCounter.increment();
     }
 }
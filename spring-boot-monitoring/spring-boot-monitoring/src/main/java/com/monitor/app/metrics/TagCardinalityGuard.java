@@ -0,0 +1,142 @@
+package com.monitor.app.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 标签基数保护
+ * 对配置的指标名称限制每个标签键的不同取值数量，超出上限的取值统一改写为OTHER，避免标签值无限增长撑大注册表和采集结果；
+ * 已出现的标签值复用同一个Tag实例。每个受保护的指标上报当前序列数和被归入OTHER的注册次数
+ */
+@Slf4j
+public class TagCardinalityGuard implements MeterFilter, MeterBinder {
+
+    public static final String OTHER = "OTHER";
+
+    private final Map<String, Guard> guards;
+
+    /**
+     * @param limits 指标名称到每个标签键最大取值数的映射
+     */
+    public TagCardinalityGuard(Map<String, Integer> limits) {
+        Map<String, Guard> map = new HashMap<>();
+        limits.forEach((name, limit) -> map.put(name, new Guard(name, limit)));
+        this.guards = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 解析name:limit,name:limit格式的配置
+     */
+    public static Map<String, Integer> parseLimits(String[] entries) {
+        Map<String, Integer> limits = new HashMap<>();
+        for (String entry : entries) {
+            String trimmed = entry.trim();
+            int index = trimmed.lastIndexOf(':');
+            if (index <= 0) {
+                continue;
+            }
+            try {
+                limits.put(trimmed.substring(0, index).trim(), Integer.parseInt(trimmed.substring(index + 1).trim()));
+            } catch (NumberFormatException e) {
+                log.warn("忽略无效的标签基数配置: {}", trimmed);
+            }
+        }
+        return limits;
+    }
+
+    @Override
+    public Meter.Id map(Meter.Id id) {
+        Guard guard = guards.get(id.getName());
+        if (guard == null) {
+            return id;
+        }
+        List<Tag> tags = id.getTags();
+        List<Tag> mapped = null;
+        boolean overflow = false;
+        for (int i = 0; i < tags.size(); i++) {
+            Tag tag = tags.get(i);
+            Tag canonical = guard.canonical(tag);
+            if (canonical == null) {
+                canonical = guard.other(tag.getKey());
+                overflow = true;
+            }
+            if (canonical != tag) {
+                if (mapped == null) {
+                    mapped = new ArrayList<>(tags);
+                }
+                mapped.set(i, canonical);
+            }
+        }
+        if (overflow) {
+            guard.overflow.increment();
+        }
+        return mapped != null ? id.replaceTags(mapped) : id;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Guard guard : guards.values()) {
+            Gauge.builder("metrics.cardinality.series", registry, r -> r.find(guard.name).meters().size())
+                 .description("受标签基数保护的指标当前的序列数")
+                 .tag("meter", guard.name)
+                 .register(registry);
+            FunctionCounter.builder("metrics.cardinality.overflow", guard.overflow, LongAdder::sum)
+                           .description("标签取值超出上限被归入OTHER的注册次数")
+                           .tag("meter", guard.name)
+                           .register(registry);
+        }
+    }
+
+    /**
+     * 单个指标名称的标签取值记录，按标签键分别计数
+     */
+    private static final class Guard {
+
+        private final String name;
+        private final int limit;
+        private final ConcurrentMap<String, ConcurrentMap<String, Tag>> values = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Tag> others = new ConcurrentHashMap<>();
+        private final LongAdder overflow = new LongAdder();
+
+        Guard(String name, int limit) {
+            this.name = name;
+            this.limit = limit;
+        }
+
+        /**
+         * 返回该取值复用的Tag实例，取值数已达上限时返回null
+         */
+        Tag canonical(Tag tag) {
+            ConcurrentMap<String, Tag> known = values.computeIfAbsent(tag.getKey(), key -> new ConcurrentHashMap<>());
+            Tag existing = known.get(tag.getValue());
+            if (existing != null) {
+                return existing;
+            }
+            // 并发时可能略微超出上限，不影响保护效果
+            if (known.size() >= limit) {
+                return null;
+            }
+            existing = known.putIfAbsent(tag.getValue(), tag);
+            return existing != null ? existing : tag;
+        }
+
+        Tag other(String key) {
+            return others.computeIfAbsent(key, k -> Tag.of(k, OTHER));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.monitor.app.metrics;
+
+import com.monitor.app.startup.DeferredInitializer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 按线程池聚合的CPU使用率和内存分配速率
+ * 基于com.sun.management.ThreadMXBean的线程CPU时间和已分配字节数，
+ * 定期采样并按线程名去掉末尾序号后的前缀归并为线程池（如 http-nio-8080-exec、scheduling）
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.metrics.thread-sampling.enabled", havingValue = "true", matchIfMissing = true)
+public class ThreadPoolMetrics {
+
+    private static final Pattern THREAD_INDEX = Pattern.compile("[-_#\\s]*\\d+$");
+    private static final String OTHER_POOL = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final DeferredInitializer deferredInitializer;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final int maxThreads;
+    private final int maxPools;
+    private final Timer samplingTimer;
+
+    // 仅由采样线程访问
+    private Map<Long, ThreadSample> previousSamples = new HashMap<>();
+    private long previousSampleTime;
+    private final Set<String> knownPools = new HashSet<>();
+
+    private final ConcurrentMap<String, PoolStats> pools = new ConcurrentHashMap<>();
+
+    public ThreadPoolMetrics(MeterRegistry meterRegistry,
+                             DeferredInitializer deferredInitializer,
+                             @Value("${monitor.metrics.thread-sampling.max-threads:1000}") int maxThreads,
+                             @Value("${monitor.metrics.thread-sampling.max-pools:50}") int maxPools) {
+        this.meterRegistry = meterRegistry;
+        this.deferredInitializer = deferredInitializer;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadMXBean = bean instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) bean
+                : null;
+        this.maxThreads = maxThreads;
+        this.maxPools = maxPools;
+        this.samplingTimer = Timer.builder("jvm.threads.sampling.duration")
+                                  .description("线程CPU和内存分配采样耗时")
+                                  .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        // 可选指标，faststart模式下在应用就绪后开启；开启前的采样直接跳过
+        deferredInitializer.submit("thread-sampling", this::enableThreadSampling);
+    }
+
+    private void enableThreadSampling() {
+        if (threadMXBean == null
+                || !threadMXBean.isThreadCpuTimeSupported()
+                || !threadMXBean.isThreadAllocatedMemorySupported()) {
+            log.warn("当前JVM不支持线程CPU时间或内存分配统计，线程池采样不可用");
+            return;
+        }
+        threadMXBean.setThreadCpuTimeEnabled(true);
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Scheduled(fixedRateString = "${monitor.metrics.thread-sampling.period-ms:10000}")
+    public void sample() {
+        if (threadMXBean == null || !threadMXBean.isThreadCpuTimeEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        long[] threadIds = threadMXBean.getAllThreadIds();
+        if (threadIds.length > maxThreads) {
+            // 限制单次采样的线程数，控制采样开销
+            threadIds = Arrays.copyOf(threadIds, maxThreads);
+        }
+        long[] cpuTimes = threadMXBean.getThreadCpuTime(threadIds);
+        long[] allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadIds);
+        String[] poolNames = resolvePoolNames(threadIds);
+
+        Map<Long, ThreadSample> currentSamples = new HashMap<>(threadIds.length * 2);
+        Map<String, long[]> deltas = new HashMap<>();
+        for (int i = 0; i < threadIds.length; i++) {
+            // 线程已结束
+            if (cpuTimes[i] < 0 || poolNames[i] == null) {
+                continue;
+            }
+            ThreadSample current = new ThreadSample(poolNames[i], cpuTimes[i], allocatedBytes[i]);
+            currentSamples.put(threadIds[i], current);
+
+            ThreadSample previous = previousSamples.get(threadIds[i]);
+            long[] delta = deltas.computeIfAbsent(poolNames[i], name -> new long[3]);
+            delta[2]++;
+            if (previous != null) {
+                delta[0] += Math.max(0, current.cpuTime - previous.cpuTime);
+                delta[1] += Math.max(0, current.allocatedBytes - previous.allocatedBytes);
+            } else if (previousSampleTime != 0) {
+                // 上次采样之后新建的线程
+                delta[0] += current.cpuTime;
+                delta[1] += Math.max(0, current.allocatedBytes);
+            }
+        }
+
+        long now = System.nanoTime();
+        if (previousSampleTime != 0) {
+            publish(deltas, now - previousSampleTime);
+        }
+        previousSamples = currentSamples;
+        previousSampleTime = now;
+
+        samplingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String[] resolvePoolNames(long[] threadIds) {
+        String[] poolNames = new String[threadIds.length];
+        int unknown = 0;
+        for (int i = 0; i < threadIds.length; i++) {
+            ThreadSample previous = previousSamples.get(threadIds[i]);
+            if (previous != null) {
+                poolNames[i] = previous.pool;
+            } else {
+                unknown++;
+            }
+        }
+        if (unknown == 0) {
+            return poolNames;
+        }
+
+        // 只对新出现的线程查询线程名
+        long[] unknownIds = new long[unknown];
+        int[] positions = new int[unknown];
+        for (int i = 0, j = 0; i < threadIds.length; i++) {
+            if (poolNames[i] == null) {
+                unknownIds[j] = threadIds[i];
+                positions[j++] = i;
+            }
+        }
+        ThreadInfo[] infos = threadMXBean.getThreadInfo(unknownIds, 0);
+        for (int j = 0; j < infos.length; j++) {
+            if (infos[j] != null) {
+                poolNames[positions[j]] = toPoolName(infos[j].getThreadName());
+            }
+        }
+        return poolNames;
+    }
+
+    private String toPoolName(String threadName) {
+        String pool = THREAD_INDEX.matcher(threadName).replaceFirst("");
+        if (pool.isEmpty()) {
+            pool = threadName;
+        }
+        if (!knownPools.contains(pool)) {
+            // 线程池数量超过上限后归入other，避免标签基数失控
+            if (knownPools.size() >= maxPools) {
+                return OTHER_POOL;
+            }
+            knownPools.add(pool);
+        }
+        return pool;
+    }
+
+    private void publish(Map<String, long[]> deltas, long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        for (Map.Entry<String, long[]> entry : deltas.entrySet()) {
+            PoolStats stats = pools.computeIfAbsent(entry.getKey(), this::registerPool);
+            long[] delta = entry.getValue();
+            stats.cpuPercent = delta[0] * 100.0 / elapsedNanos;
+            stats.allocationRate = delta[1] / elapsedSeconds;
+            stats.threads = delta[2];
+        }
+        // 本轮没有线程的线程池归零
+        for (Map.Entry<String, PoolStats> entry : pools.entrySet()) {
+            if (!deltas.containsKey(entry.getKey())) {
+                entry.getValue().reset();
+            }
+        }
+    }
+
+    private PoolStats registerPool(String pool) {
+        PoolStats stats = new PoolStats();
+        Gauge.builder("jvm.threads.pool.cpu.usage", stats, s -> s.cpuPercent)
+             .description("线程池CPU使用率(占单个核心的百分比)")
+             .tag("pool", pool)
+             .register(meterRegistry);
+        Gauge.builder("jvm.threads.pool.allocation.rate", stats, s -> s.allocationRate)
+             .description("线程池内存分配速率")
+             .baseUnit("bytes")
+             .tag("pool", pool)
+             .register(meterRegistry);
+        Gauge.builder("jvm.threads.pool.count", stats, s -> s.threads)
+             .description("线程池线程数")
+             .tag("pool", pool)
+             .register(meterRegistry);
+        return stats;
+    }
+
+    private static final class ThreadSample {
+
+        private final String pool;
+        private final long cpuTime;
+        private final long allocatedBytes;
+
+        private ThreadSample(String pool, long cpuTime, long allocatedBytes) {
+            this.pool = pool;
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private static final class PoolStats {
+
+        private volatile double cpuPercent;
+        private volatile double allocationRate;
+        private volatile double threads;
+
+        private void reset() {
+            cpuPercent = 0;
+            allocationRate = 0;
+            threads = 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.monitor.app.repository;
+
+/**
+ * 按操作类型分组的计数投影
+ */
+public interface LogActionCount {
+
+    String getAction();
+
+    Long getCount();
+}
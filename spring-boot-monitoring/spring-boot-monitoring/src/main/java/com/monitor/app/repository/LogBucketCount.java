@@ -0,0 +1,23 @@
+package com.monitor.app.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 按操作类型和时间桶分组的计数投影
+ */
+public interface LogBucketCount {
+
+    String getAction();
+
+    /**
+     * 时间桶起点，以1970-01-01 00:00:00起的秒数表示
+     */
+    Long getBucketStart();
+
+    Long getCount();
+
+    default LocalDateTime getBucket() {
+        return LocalDateTime.ofEpochSecond(getBucketStart(), 0, ZoneOffset.UTC);
+    }
+}
@@ -1,12 +1,116 @@
 package com.monitor.app.repository;
 
 import com.monitor.app.entity.LogRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 /**
  * 日志记录仓库，用于测试数据库监控功能
  */
 @Repository
 public interface LogRepository extends JpaRepository<LogRecord, Long> {
+
+    /**
+     * 按主键游标分页：返回id大于游标的下一页
+     */
+    List<LogRecord> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * 按时间游标分页：时间相同时以id作为次序，避免漏行或重复
+     */
+    @Query("select l from LogRecord l where l.timestamp > :timestamp " +
+           "or (l.timestamp = :timestamp and l.id > :id) order by l.timestamp asc, l.id asc")
+    List<LogRecord> findAfterTimestamp(@Param("timestamp") LocalDateTime timestamp,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * 以数据库游标流式读取全部日志，需在事务内消费并关闭
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select l from LogRecord l order by l.id asc")
+    Stream<LogRecord> streamAllOrderById();
+
+    /**
+     * 查询时间范围[from, to)内的日志摘要
+     */
+    @Query("select l.id as id, l.action as action, l.timestamp as timestamp from LogRecord l " +
+           "where l.timestamp >= :from and l.timestamp < :to order by l.timestamp asc, l.id asc")
+    List<LogSummary> findSummariesBetween(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          Pageable pageable);
+
+    /**
+     * 查询时间范围[from, to)内指定操作类型的日志摘要
+     */
+    @Query("select l.id as id, l.action as action, l.timestamp as timestamp from LogRecord l " +
+           "where l.action = :action and l.timestamp >= :from and l.timestamp < :to " +
+           "order by l.timestamp asc, l.id asc")
+    List<LogSummary> findSummariesByActionBetween(@Param("action") String action,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  Pageable pageable);
+
+    /**
+     * 统计时间范围[from, to)内指定操作类型的日志数量
+     */
+    @Query("select count(l) from LogRecord l where l.action = :action and l.timestamp >= :from and l.timestamp < :to")
+    long countByActionBetween(@Param("action") String action,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to);
+
+    /**
+     * 统计时间范围[from, to)内各操作类型的日志数量
+     */
+    @Query("select l.action as action, count(l) as count from LogRecord l " +
+           "where l.timestamp >= :from and l.timestamp < :to group by l.action order by l.action")
+    List<LogActionCount> countGroupByActionBetween(@Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+    /**
+     * 统计时间范围[from, to)内各操作类型在每个时间桶中的日志数量
+     */
+    @Query(value = "select b.action as action, b.bucket_start as bucketStart, count(*) as count from (" +
+                   "select action, datediff('SECOND', timestamp '1970-01-01 00:00:00', timestamp) " +
+                   "/ :bucketSeconds * :bucketSeconds as bucket_start " +
+                   "from log_record where timestamp >= :from and timestamp < :to) b " +
+                   "group by b.action, b.bucket_start order by b.bucket_start, b.action",
+           nativeQuery = true)
+    List<LogBucketCount> countGroupByActionAndBucket(@Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to,
+                                                     @Param("bucketSeconds") long bucketSeconds);
+
+    /**
+     * 查询早于cutoff的日志主键，按时间从旧到新
+     */
+    @Query("select l.id from LogRecord l where l.timestamp < :cutoff order by l.timestamp asc, l.id asc")
+    List<Long> findIdsOlderThan(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * 按主键从小到大查询最早写入的日志主键
+     */
+    @Query("select l.id from LogRecord l order by l.id asc")
+    List<Long> findOldestIds(Pageable pageable);
+
+    List<LogRecord> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * 按主键批量删除，不经过持久化上下文
+     */
+    @Modifying
+    @Query("delete from LogRecord l where l.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
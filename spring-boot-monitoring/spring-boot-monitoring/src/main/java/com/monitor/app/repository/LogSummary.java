@@ -0,0 +1,15 @@
+package com.monitor.app.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日志记录摘要投影，仅查询需要的列
+ */
+public interface LogSummary {
+
+    Long getId();
+
+    String getAction();
+
+    LocalDateTime getTimestamp();
+}
@@ -0,0 +1,68 @@
+package com.monitor.app.server;
+
+import java.util.Locale;
+
+/**
+ * Accept-Encoding请求头解析（RFC 7231 5.3.4）
+ * 逗号分隔的编码各自带可选的q值，q=0表示拒绝该编码；没有单独列出的编码取*的q值，
+ * identity没有列出且没有*时视为可接受，但优先级低于任何列出的编码
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * 客户端接受gzip，且gzip的q值不低于identity时返回true
+     */
+    public static boolean prefersGzip(String header) {
+        if (header == null || header.isEmpty()) {
+            return false;
+        }
+        double gzip = -1;
+        double identity = -1;
+        double any = -1;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.isEmpty()) {
+                continue;
+            }
+            double quality = quality(parts);
+            if (Double.isNaN(quality)) {
+                continue;
+            }
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzip = Math.max(gzip, quality);
+            } else if ("identity".equals(coding)) {
+                identity = Math.max(identity, quality);
+            } else if ("*".equals(coding)) {
+                any = Math.max(any, quality);
+            }
+        }
+        if (gzip < 0) {
+            gzip = Math.max(any, 0);
+        }
+        if (identity < 0) {
+            identity = Math.max(any, 0);
+        }
+        return gzip > 0 && gzip >= identity;
+    }
+
+    // 未指定q时为1，格式错误时返回NaN，忽略该项
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && "q".equalsIgnoreCase(parameter.substring(0, equals).trim())) {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(equals + 1).trim());
+                    return quality >= 0 && quality <= 1 ? quality : Double.NaN;
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+            }
+        }
+        return 1;
+    }
+}
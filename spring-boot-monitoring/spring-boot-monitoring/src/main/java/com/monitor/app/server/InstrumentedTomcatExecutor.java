@@ -0,0 +1,124 @@
+package com.monitor.app.server;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录排队时间的Tomcat请求线程池
+ * 与Tomcat内部创建的线程池相同（TaskQueue优先扩充线程，线程数到上限后才排队），额外记录每个socket任务从提交到
+ * 开始执行的等待时间、提交时所有线程都在忙的次数和拒绝次数；当前任务的等待时间保存在线程上，供请求过滤器按接口记录。
+ * 等待时间不包括内核accept队列和poller检测到可读之前的时间。
+ * 线程池在MeterRegistry之前创建，绑定到注册表之前的等待时间不做记录
+ */
+public class InstrumentedTomcatExecutor extends ThreadPoolExecutor implements MeterBinder {
+
+    private static final long NONE = -1;
+    private static final ThreadLocal<long[]> CURRENT_QUEUE_WAIT = ThreadLocal.withInitial(() -> new long[]{NONE});
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder saturated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile Timer queueWaitTimer;
+
+    public InstrumentedTomcatExecutor(String namePrefix, int minSpareThreads, int maxThreads) {
+        super(minSpareThreads, maxThreads, 60, TimeUnit.SECONDS, new TaskQueue(),
+                new TaskThreadFactory(namePrefix, true, Thread.NORM_PRIORITY));
+        ((TaskQueue) getQueue()).setParent(this);
+    }
+
+    /**
+     * 取出当前线程上正在处理的socket任务的排队时间（纳秒），同一任务只返回一次，之后返回-1
+     */
+    public static long takeQueueWait() {
+        long[] holder = CURRENT_QUEUE_WAIT.get();
+        long wait = holder[0];
+        holder[0] = NONE;
+        return wait;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tomcat.executor.active", active, AtomicInteger::get)
+             .description("正在处理socket任务的请求线程数")
+             .register(registry);
+        Gauge.builder("tomcat.executor.pool.size", this, ThreadPoolExecutor::getPoolSize)
+             .description("请求线程池当前线程数")
+             .register(registry);
+        Gauge.builder("tomcat.executor.max", this, ThreadPoolExecutor::getMaximumPoolSize)
+             .description("请求线程池最大线程数")
+             .register(registry);
+        Gauge.builder("tomcat.executor.queued", this, executor -> executor.getQueue().size())
+             .description("等待请求线程的socket任务数")
+             .register(registry);
+        Gauge.builder("tomcat.executor.utilization", this,
+                        executor -> (double) executor.active.get() / executor.getMaximumPoolSize())
+             .description("忙碌线程数占最大线程数的比例")
+             .register(registry);
+        FunctionCounter.builder("tomcat.executor.saturated", saturated, LongAdder::sum)
+                       .description("提交时所有请求线程都在忙、只能排队的任务数")
+                       .register(registry);
+        FunctionCounter.builder("tomcat.executor.rejected", rejected, LongAdder::sum)
+                       .description("被请求线程池拒绝的任务数")
+                       .register(registry);
+        this.queueWaitTimer = Timer.builder("tomcat.executor.queue.wait")
+                                   .description("socket任务从提交到请求线程开始处理的等待时间")
+                                   .publishPercentileHistogram()
+                                   .minimumExpectedValue(Duration.ofNanos(10_000))
+                                   .maximumExpectedValue(Duration.ofSeconds(30))
+                                   .register(registry);
+    }
+
+    @Override
+    public void execute(Runnable command, long timeout, TimeUnit unit) {
+        if (active.get() >= getMaximumPoolSize()) {
+            saturated.increment();
+        }
+        try {
+            super.execute(new TimedTask(command, System.nanoTime()), timeout, unit);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private final class TimedTask implements Runnable {
+
+        private final Runnable task;
+        private final long submittedAt;
+
+        TimedTask(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            long wait = System.nanoTime() - submittedAt;
+            Timer timer = queueWaitTimer;
+            if (timer != null) {
+                timer.record(wait, TimeUnit.NANOSECONDS);
+            }
+            long[] holder = CURRENT_QUEUE_WAIT.get();
+            holder[0] = wait;
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+                holder[0] = NONE;
+            }
+        }
+    }
+}
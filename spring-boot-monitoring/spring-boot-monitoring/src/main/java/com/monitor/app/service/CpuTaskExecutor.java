@@ -0,0 +1,160 @@
+package com.monitor.app.service;
+
+import com.monitor.app.metrics.SlowRequestRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * CPU密集型请求的专用有界执行器
+ * 耗时的处理逻辑提交到这里执行，Tomcat请求线程立即释放；运行时支持虚拟线程时使用虚拟线程，
+ * 否则使用固定大小的线程池。执行中和排队的任务总数受限，超出时拒绝
+ */
+@Slf4j
+@Component
+public class CpuTaskExecutor {
+
+    private final boolean enabled;
+    private final SlowRequestRecorder slowRequests;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejectedCounter;
+    private final Timer queueWaitTimer;
+    private final Timer executionTimer;
+
+    public CpuTaskExecutor(MeterRegistry meterRegistry,
+                           SlowRequestRecorder slowRequests,
+                           @Value("${monitor.async.enabled:true}") boolean enabled,
+                           @Value("${monitor.async.threads:0}") int threads,
+                           @Value("${monitor.async.queue-capacity:100}") int queueCapacity,
+                           @Value("${monitor.async.virtual-threads:true}") boolean virtualThreads) {
+        this.enabled = enabled;
+        this.slowRequests = slowRequests;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.permits = new Semaphore(poolSize + queueCapacity);
+
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            log.info("CPU任务执行器使用虚拟线程，最大并发任务数 {}", poolSize + queueCapacity);
+        } else {
+            AtomicInteger index = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "cpu-task-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        String name = "cpu-task";
+        Gauge.builder("async.executor.active", active, AtomicInteger::get)
+             .description("正在执行的任务数")
+             .tag("executor", name)
+             .register(meterRegistry);
+        Gauge.builder("async.executor.queued", queued, AtomicInteger::get)
+             .description("等待执行的任务数")
+             .tag("executor", name)
+             .register(meterRegistry);
+        Gauge.builder("async.executor.capacity", permits, Semaphore::availablePermits)
+             .description("剩余可接收的任务数")
+             .tag("executor", name)
+             .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("async.executor.rejected")
+                                      .description("被拒绝的任务数")
+                                      .tag("executor", name)
+                                      .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("async.executor.queue.wait")
+                                   .description("任务从提交到开始执行的等待时间")
+                                   .tag("executor", name)
+                                   .register(meterRegistry);
+        this.executionTimer = Timer.builder("async.executor.execution")
+                                   .description("任务执行耗时")
+                                   .tag("executor", name)
+                                   .register(meterRegistry);
+    }
+
+    /**
+     * 提交任务，返回的Future在任务完成时结束；执行器已满时Future以RejectedExecutionException失败。
+     * 未启用异步执行时在调用线程上直接执行
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!permits.tryAcquire()) {
+            rejectedCounter.increment();
+            future.completeExceptionally(new RejectedExecutionException("CPU任务执行器已满"));
+            return future;
+        }
+
+        long submittedAt = System.nanoTime();
+        // 慢请求采样跟随任务转到执行线程
+        Supplier<T> propagated = slowRequests.propagate(task);
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(propagated, future, submittedAt));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            permits.release();
+            rejectedCounter.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future, long submittedAt) {
+        long start = System.nanoTime();
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        queueWaitTimer.record(start - submittedAt, TimeUnit.NANOSECONDS);
+        try {
+            future.complete(task.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+            executionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器（JDK 21+），运行时不支持时返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
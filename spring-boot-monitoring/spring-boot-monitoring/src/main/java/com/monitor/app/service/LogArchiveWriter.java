@@ -0,0 +1,74 @@
+package com.monitor.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitor.app.entity.LogRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 日志归档段文件写入
+ * 每条记录一行JSON，每个批次压缩为一个独立的gzip成员追加到当前段文件末尾（多个gzip成员拼接仍是合法的gzip文件，
+ * 可直接用zcat读取），写完后强制刷盘；段文件超过上限后滚动到新文件。只由清理线程调用
+ */
+public class LogArchiveWriter {
+
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final ObjectMapper objectMapper;
+    private Path segment;
+    private int segmentSequence;
+
+    public LogArchiveWriter(Path directory, long segmentMaxBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 追加一批记录，返回写入的压缩字节数；返回后数据已落盘
+     */
+    public long append(List<LogRecord> records) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            for (LogRecord record : records) {
+                gzip.write(objectMapper.writeValueAsBytes(record));
+                gzip.write('\n');
+            }
+        }
+        Path target = currentSegment();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        return buffer.size();
+    }
+
+    private Path currentSegment() throws IOException {
+        if (segment == null || (Files.exists(segment) && Files.size(segment) >= segmentMaxBytes)) {
+            Files.createDirectories(directory);
+            segment = directory.resolve(String.format("logs-%s-%03d.jsonl.gz",
+                    LocalDateTime.now().format(SEGMENT_NAME), segmentSequence++ % 1000));
+        }
+        return segment;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,116 @@
+package com.monitor.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.monitor.app.entity.LogRecord;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 日志读缓存
+ * records按主键缓存单条记录（包括不存在的主键），queries缓存列表和统计查询的结果，按结果行数计权重，总行数不超过max-query-rows。
+ * 写入和清理时使涉及的主键失效并清空查询缓存；查询键带有代数，失效前已开始加载的旧结果写入后也不会再被读到。
+ * 命中、未命中、淘汰和加载耗时通过CaffeineCacheMetrics注册为cache.*指标
+ */
+@Component
+public class LogCache {
+
+    private final boolean enabled;
+    private final Cache<Long, Optional<LogRecord>> records;
+    private final Cache<List<Object>, Object> queries;
+    private final AtomicLong generation = new AtomicLong();
+
+    public LogCache(MeterRegistry meterRegistry,
+                    @Value("${monitor.log.cache.enabled:true}") boolean enabled,
+                    @Value("${monitor.log.cache.max-records:10000}") long maxRecords,
+                    @Value("${monitor.log.cache.max-query-rows:50000}") long maxQueryRows,
+                    @Value("${monitor.log.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.records = Caffeine.newBuilder()
+                               .maximumSize(maxRecords)
+                               .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                               .recordStats()
+                               .build();
+        this.queries = Caffeine.newBuilder()
+                               .maximumWeight(maxQueryRows)
+                               .weigher((List<Object> key, Object value) ->
+                                       value instanceof Collection ? Math.max(1, ((Collection<?>) value).size()) : 1)
+                               .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                               .recordStats()
+                               .build();
+        if (enabled) {
+            monitor(meterRegistry, records, "logs.records");
+            monitor(meterRegistry, queries, "logs.queries");
+        }
+    }
+
+    /**
+     * CaffeineCacheMetrics只对LoadingCache注册加载指标，这里按相同名称补充注册
+     */
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        FunctionTimer.builder("cache.load.duration", cache, c -> c.stats().loadCount(),
+                        c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                     .description("缓存未命中时加载数据的耗时")
+                     .tag("cache", name)
+                     .register(meterRegistry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                       .description("缓存加载次数")
+                       .tag("cache", name)
+                       .tag("result", "success")
+                       .register(meterRegistry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                       .description("缓存加载次数")
+                       .tag("cache", name)
+                       .tag("result", "failure")
+                       .register(meterRegistry);
+    }
+
+    /**
+     * 按主键读取，未命中时调用loader加载；同一主键的并发加载只执行一次
+     */
+    public Optional<LogRecord> record(Long id, Function<Long, Optional<LogRecord>> loader) {
+        return enabled ? records.get(id, loader) : loader.apply(id);
+    }
+
+    /**
+     * 读取查询结果，key为查询名称和参数；列表结果应为不可修改的
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T query(Supplier<T> loader, Object... key) {
+        if (!enabled) {
+            return loader.get();
+        }
+        List<Object> cacheKey = new ArrayList<>(key.length + 1);
+        cacheKey.add(generation.get());
+        Collections.addAll(cacheKey, key);
+        return (T) queries.get(cacheKey, k -> loader.get());
+    }
+
+    /**
+     * 日志写入或删除后调用：使涉及的主键失效并清空查询缓存
+     */
+    public void invalidate(Collection<Long> ids) {
+        if (!enabled) {
+            return;
+        }
+        records.invalidateAll(ids);
+        generation.incrementAndGet();
+        queries.invalidateAll();
+    }
+}
@@ -0,0 +1,319 @@
+package com.monitor.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitor.app.entity.LogRecord;
+import com.monitor.app.server.AcceptEncoding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 日志批量导出
+ * 边从数据库游标读取边编码写入响应，支持JSON、CBOR和Smile三种编码，可选gzip压缩。
+ * rows布局逐条输出完整实体；columnar布局每chunk-rows行输出一个列块，字段名每块只出现一次：
+ * id和timestamp（epoch毫秒）第一个值为原值、其余为与前一行的差值，action按块内字典编码为下标，
+ * 二进制编码下差值和下标通常只占1~2字节。
+ * 导出行数、响应字节数（压缩后）和耗时按format、layout、gzip记录为log.export.*指标
+ */
+@Component
+public class LogExporter {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * 响应编码，按Accept头协商
+     */
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(APPLICATION_SMILE);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    /**
+     * 响应结构：rows为实体数组，columnar为列块
+     */
+    public enum Layout {
+        ROWS,
+        COLUMNAR
+    }
+
+    private final LogService logService;
+    private final MeterRegistry meterRegistry;
+    private final Map<Format, ObjectMapper> mappers = new HashMap<>();
+    private final int chunkRows;
+    private final boolean gzipEnabled;
+    private final int gzipLevel;
+
+    public LogExporter(LogService logService,
+                       MeterRegistry meterRegistry,
+                       ObjectMapper objectMapper,
+                       MappingJackson2CborHttpMessageConverter cborConverter,
+                       MappingJackson2SmileHttpMessageConverter smileConverter,
+                       @Value("${monitor.log.export.chunk-rows:1000}") int chunkRows,
+                       @Value("${monitor.log.export.gzip.enabled:true}") boolean gzipEnabled,
+                       @Value("${monitor.log.export.gzip.level:1}") int gzipLevel) {
+        this.logService = logService;
+        this.meterRegistry = meterRegistry;
+        this.mappers.put(Format.JSON, objectMapper);
+        this.mappers.put(Format.CBOR, cborConverter.getObjectMapper());
+        this.mappers.put(Format.SMILE, smileConverter.getObjectMapper());
+        this.chunkRows = Math.max(1, chunkRows);
+        this.gzipEnabled = gzipEnabled;
+        this.gzipLevel = gzipLevel;
+    }
+
+    /**
+     * 按Accept头选择编码，取质量值最高且支持的类型；未指定或都不支持时使用JSON
+     */
+    public Format negotiate(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return Format.JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMimeTypeException e) {
+            return Format.JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            for (Format format : Format.values()) {
+                if (mediaType.getQualityValue() > 0 && mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return Format.JSON;
+    }
+
+    public Layout layout(String layout) {
+        return "columnar".equalsIgnoreCase(layout) ? Layout.COLUMNAR : Layout.ROWS;
+    }
+
+    /**
+     * 未关闭压缩，且Accept-Encoding中gzip的q值大于0并不低于identity时返回true
+     */
+    public boolean useGzip(String acceptEncoding) {
+        return gzipEnabled && AcceptEncoding.prefersGzip(acceptEncoding);
+    }
+
+    public StreamingResponseBody export(Format format, Layout layout, boolean gzip) {
+        return outputStream -> {
+            long start = System.nanoTime();
+            CountingOutputStream counting = new CountingOutputStream(outputStream);
+            OutputStream target = gzip ? new LevelGzipOutputStream(counting, gzipLevel) : counting;
+            long rows;
+            try (JsonGenerator generator = mappers.get(format).getFactory().createGenerator(target)) {
+                rows = layout == Layout.COLUMNAR ? writeColumnar(generator) : writeRows(generator);
+            }
+            Tags tags = Tags.of("format", format.name().toLowerCase(Locale.ROOT),
+                    "layout", layout.name().toLowerCase(Locale.ROOT),
+                    "gzip", String.valueOf(gzip));
+            Counter.builder("log.export.rows")
+                   .description("批量导出的日志行数")
+                   .tags(tags)
+                   .register(meterRegistry)
+                   .increment(rows);
+            DistributionSummary.builder("log.export.size")
+                               .description("批量导出的响应大小（压缩后）")
+                               .baseUnit("bytes")
+                               .tags(tags)
+                               .register(meterRegistry)
+                               .record(counting.count);
+            Timer.builder("log.export.duration")
+                 .description("批量导出从读取到写完响应的耗时")
+                 .tags(tags)
+                 .register(meterRegistry)
+                 .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        };
+    }
+
+    private long writeRows(JsonGenerator generator) throws IOException {
+        long[] rows = new long[1];
+        generator.writeStartArray();
+        logService.streamLogs(logRecord -> {
+            try {
+                generator.writeObject(logRecord);
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+        return rows[0];
+    }
+
+    private long writeColumnar(JsonGenerator generator) throws IOException {
+        ColumnChunk chunk = new ColumnChunk(chunkRows);
+        long[] rows = new long[1];
+        generator.writeStartObject();
+        generator.writeStringField("layout", "columnar");
+        generator.writeArrayFieldStart("chunks");
+        logService.streamLogs(logRecord -> {
+            chunk.add(logRecord);
+            rows[0]++;
+            if (chunk.size == chunkRows) {
+                writeChunk(generator, chunk);
+            }
+        });
+        if (chunk.size > 0) {
+            writeChunk(generator, chunk);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("rows", rows[0]);
+        generator.writeEndObject();
+        return rows[0];
+    }
+
+    private static void writeChunk(JsonGenerator generator, ColumnChunk chunk) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("rows", chunk.size);
+            writeDeltas(generator, "id", chunk.ids, chunk.size);
+            writeDeltas(generator, "timestamp", chunk.timestamps, chunk.size);
+            generator.writeArrayFieldStart("actions");
+            for (String action : chunk.dictionary) {
+                generator.writeString(action);
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("action");
+            for (int i = 0; i < chunk.size; i++) {
+                generator.writeNumber(chunk.actions[i]);
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("description");
+            for (int i = 0; i < chunk.size; i++) {
+                generator.writeString(chunk.descriptions[i]);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+    }
+
+    private static void writeDeltas(JsonGenerator generator, String field, long[] values, int size) throws IOException {
+        generator.writeArrayFieldStart(field);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            generator.writeNumber(values[i] - previous);
+            previous = values[i];
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * 一个列块的缓冲，写出后复用
+     */
+    private static final class ColumnChunk {
+
+        private static final ZoneId ZONE = ZoneId.systemDefault();
+
+        private final long[] ids;
+        private final long[] timestamps;
+        private final int[] actions;
+        private final String[] descriptions;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+        private int size;
+
+        ColumnChunk(int capacity) {
+            this.ids = new long[capacity];
+            this.timestamps = new long[capacity];
+            this.actions = new int[capacity];
+            this.descriptions = new String[capacity];
+        }
+
+        void add(LogRecord logRecord) {
+            LocalDateTime timestamp = logRecord.getTimestamp();
+            ids[size] = logRecord.getId();
+            // 没有时间的记录沿用上一行的值，差值为0
+            timestamps[size] = timestamp != null ? timestamp.atZone(ZONE).toInstant().toEpochMilli()
+                    : size > 0 ? timestamps[size - 1] : 0;
+            actions[size] = dictionaryIndex.computeIfAbsent(logRecord.getAction(), action -> {
+                dictionary.add(action);
+                return dictionary.size() - 1;
+            });
+            descriptions[size] = logRecord.getDescription();
+            size++;
+        }
+
+        void clear() {
+            dictionary.clear();
+            dictionaryIndex.clear();
+            Arrays.fill(descriptions, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * 统计实际写入响应的字节数
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * 可设置压缩级别的GZIPOutputStream，默认级别1以压缩率换取CPU
+     */
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.monitor.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitor.app.entity.LogRecord;
+import com.monitor.app.repository.LogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 日志保留策略
+ * 后台线程每interval-ms执行一次清理：先删除超过max-age-hours的记录，再在总行数超过max-rows时按主键删除最早的记录。
+ * 每批最多batch-size行、每次最多max-batches-per-run批，每批在独立事务中删除，批次之间暂停batch-pause-ms，避免长时间占用连接和锁。
+ * 开启归档时每批先追加到gzip段文件并刷盘，写入失败则放弃本次清理
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.log.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class LogRetentionService {
+
+    private final LogRepository logRepository;
+    private final LogCache logCache;
+    private final TransactionTemplate transactionTemplate;
+    private final LogArchiveWriter archiveWriter;
+    private final long maxAgeHours;
+    private final long maxRows;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long batchPauseMs;
+    private final long intervalMs;
+
+    private final AtomicLong tableRows = new AtomicLong();
+    private final Counter purgedByAge;
+    private final Counter purgedByCount;
+    private final Counter archivedRecords;
+    private final Counter archivedBytes;
+    private final Counter archiveFailures;
+    private final Timer batchTimer;
+    private final Timer runTimer;
+    private ScheduledExecutorService executor;
+
+    public LogRetentionService(LogRepository logRepository,
+                               LogCache logCache,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               ObjectMapper objectMapper,
+                               @Value("${monitor.log.retention.max-age-hours:168}") long maxAgeHours,
+                               @Value("${monitor.log.retention.max-rows:100000}") long maxRows,
+                               @Value("${monitor.log.retention.batch-size:500}") int batchSize,
+                               @Value("${monitor.log.retention.max-batches-per-run:100}") int maxBatchesPerRun,
+                               @Value("${monitor.log.retention.batch-pause-ms:10}") long batchPauseMs,
+                               @Value("${monitor.log.retention.interval-ms:60000}") long intervalMs,
+                               @Value("${monitor.log.retention.archive.enabled:false}") boolean archiveEnabled,
+                               @Value("${monitor.log.retention.archive.dir:data/log-archive}") String archiveDir,
+                               @Value("${monitor.log.retention.archive.segment-max-mb:64}") long segmentMaxMb) {
+        this.logRepository = logRepository;
+        this.logCache = logCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveWriter = archiveEnabled
+                ? new LogArchiveWriter(Paths.get(archiveDir), segmentMaxMb * 1024 * 1024, objectMapper)
+                : null;
+        this.maxAgeHours = maxAgeHours;
+        this.maxRows = maxRows;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.batchPauseMs = batchPauseMs;
+        this.intervalMs = intervalMs;
+
+        Gauge.builder("log.retention.table.rows", tableRows, AtomicLong::get)
+             .description("日志表当前行数（每次清理后更新）")
+             .register(meterRegistry);
+        this.purgedByAge = purgedCounter(meterRegistry, "age");
+        this.purgedByCount = purgedCounter(meterRegistry, "count");
+        this.archivedRecords = Counter.builder("log.retention.archived.records")
+                                      .description("清理前归档的日志记录数")
+                                      .register(meterRegistry);
+        this.archivedBytes = Counter.builder("log.retention.archived.bytes")
+                                    .description("写入归档段文件的压缩字节数")
+                                    .baseUnit("bytes")
+                                    .register(meterRegistry);
+        this.archiveFailures = Counter.builder("log.retention.archive.failures")
+                                      .description("归档写入失败次数")
+                                      .register(meterRegistry);
+        this.batchTimer = Timer.builder("log.retention.batch")
+                               .description("单批归档和删除耗时")
+                               .register(meterRegistry);
+        this.runTimer = Timer.builder("log.retention.run")
+                             .description("单次清理耗时")
+                             .register(meterRegistry);
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String policy) {
+        return Counter.builder("log.retention.purged")
+                      .description("按保留策略删除的日志记录数：age=超过保留时长，count=超过最大行数")
+                      .tag("policy", policy)
+                      .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::purge, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("日志保留策略已启用：保留 {} 小时，最多 {} 行，归档{}", maxAgeHours, maxRows,
+                archiveWriter != null ? "到 " + archiveWriter.getDirectory().toAbsolutePath() : "未开启");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 执行一次清理，单次最多删除max-batches-per-run批，剩余的留到下次
+     */
+    public void purge() {
+        long start = System.nanoTime();
+        try {
+            int batches = 0;
+            if (maxAgeHours > 0) {
+                LocalDateTime cutoff = LocalDateTime.now().minusHours(maxAgeHours);
+                batches += purge(page -> logRepository.findIdsOlderThan(cutoff, page), Long.MAX_VALUE,
+                        maxBatchesPerRun, purgedByAge);
+            }
+            if (maxRows > 0) {
+                long excess = logRepository.count() - maxRows;
+                if (excess > 0) {
+                    purge(logRepository::findOldestIds, excess, maxBatchesPerRun - batches, purgedByCount);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            log.warn("日志清理失败", e);
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            tableRows.set(logRepository.count());
+        } catch (RuntimeException e) {
+            log.debug("统计日志表行数失败", e);
+        }
+    }
+
+    /**
+     * 按查询给出的顺序分批删除，最多删除limit行、执行batchBudget批，返回实际执行的批数
+     */
+    private int purge(Function<Pageable, List<Long>> oldestIds, long limit, int batchBudget, Counter purged)
+            throws InterruptedException {
+        long remaining = limit;
+        int batches = 0;
+        while (batches < batchBudget && remaining > 0) {
+            int size = (int) Math.min(batchSize, remaining);
+            List<Long> ids = oldestIds.apply(PageRequest.of(0, size));
+            if (ids.isEmpty()) {
+                break;
+            }
+            int deleted = deleteBatch(ids);
+            purged.increment(deleted);
+            remaining -= ids.size();
+            batches++;
+            if (ids.size() < size) {
+                break;
+            }
+            Thread.sleep(batchPauseMs);
+        }
+        return batches;
+    }
+
+    private int deleteBatch(List<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            if (archiveWriter != null) {
+                archive(ids);
+            }
+            Integer deleted = transactionTemplate.execute(status -> logRepository.deleteByIds(ids));
+            logCache.invalidate(ids);
+            return deleted != null ? deleted : 0;
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void archive(List<Long> ids) {
+        List<LogRecord> records = logRepository.findByIdInOrderByIdAsc(ids);
+        try {
+            archivedBytes.increment(archiveWriter.append(records));
+            archivedRecords.increment(records.size());
+        } catch (IOException e) {
+            archiveFailures.increment();
+            // 归档失败时不删除，避免丢失数据
+            throw new UncheckedIOException("日志归档写入失败", e);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.monitor.app.service;
 
 import com.monitor.app.entity.LogRecord;
+import com.monitor.app.repository.LogActionCount;
+import com.monitor.app.repository.LogBucketCount;
 import com.monitor.app.repository.LogRepository;
+import com.monitor.app.repository.LogSummary;
+import com.monitor.app.startup.DeferredInitializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 示例服务，用于测试数据库监控和生成模拟数据
@@ -20,23 +33,45 @@ public class LogService {
     @Autowired
     private LogRepository logRepository;
     
+    // 仅在 monitor.log.write.mode=async 时存在
+    @Autowired(required = false)
+    private LogWriteQueue logWriteQueue;
+    
+    @Autowired
+    private LogCache logCache;
+    
+    @Autowired
+    private DeferredInitializer deferredInitializer;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     private final Random random = new Random();
     private final List<String> actions = Arrays.asList("LOGIN", "LOGOUT", "CREATE", "UPDATE", "DELETE", "VIEW");
     
     @PostConstruct
     public void init() {
-        // 初始化一些日志数据
-        for (int i = 0; i < 10; i++) {
-            createRandomLog();
-        }
+        // 初始化一些日志数据，faststart模式下在应用就绪后写入
+        deferredInitializer.submit("seed-logs", () -> {
+            for (int i = 0; i < 10; i++) {
+                createRandomLog();
+            }
+        });
     }
     
     /**
      * 创建日志记录
+     * 异步写入模式下记录进入写入队列后立即返回，此时主键尚未分配，缓存在批量写入后失效
      */
     public LogRecord createLog(String action, String description) {
         LogRecord logRecord = new LogRecord(action, description);
-        return logRepository.save(logRecord);
+        if (logWriteQueue != null) {
+            logWriteQueue.enqueue(logRecord);
+            return logRecord;
+        }
+        LogRecord saved = logRepository.save(logRecord);
+        logCache.invalidate(Collections.singletonList(saved.getId()));
+        return saved;
     }
     
     /**
@@ -52,7 +87,80 @@ public class LogService {
      * 获取所有日志记录
      */
     public List<LogRecord> getAllLogs() {
-        return logRepository.findAll();
+        return logCache.query(() -> Collections.unmodifiableList(logRepository.findAll()), "all");
+    }
+    
+    /**
+     * 按主键获取日志
+     */
+    public Optional<LogRecord> getLog(Long id) {
+        return logCache.record(id, logRepository::findById);
+    }
+    
+    /**
+     * 按主键游标分页获取日志，afterId为空时从头开始
+     */
+    public List<LogRecord> getLogsAfterId(Long afterId, int size) {
+        long cursor = afterId != null ? afterId : Long.MIN_VALUE;
+        return logCache.query(() -> Collections.unmodifiableList(
+                logRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, size))), "afterId", cursor, size);
+    }
+    
+    /**
+     * 按时间游标分页获取日志，afterTimestamp为空时从头开始
+     */
+    public List<LogRecord> getLogsAfterTimestamp(LocalDateTime afterTimestamp, Long afterId, int size) {
+        LocalDateTime timestamp = afterTimestamp != null ? afterTimestamp : LocalDateTime.of(1970, 1, 1, 0, 0);
+        long cursor = afterId != null ? afterId : Long.MIN_VALUE;
+        return logCache.query(() -> Collections.unmodifiableList(
+                logRepository.findAfterTimestamp(timestamp, cursor, PageRequest.of(0, size))),
+                "afterTimestamp", timestamp, cursor, size);
+    }
+    
+    /**
+     * 流式遍历全部日志，每条记录交给consumer处理后即从持久化上下文中移除，堆内存占用与表大小无关
+     */
+    @Transactional(readOnly = true)
+    public void streamLogs(Consumer<LogRecord> consumer) {
+        try (Stream<LogRecord> logs = logRepository.streamAllOrderById()) {
+            logs.forEach(logRecord -> {
+                consumer.accept(logRecord);
+                entityManager.detach(logRecord);
+            });
+        }
+    }
+    
+    /**
+     * 查询时间范围[from, to)内的日志摘要，action为空时不按操作类型过滤
+     */
+    public List<LogSummary> getLogSummaries(String action, LocalDateTime from, LocalDateTime to, int size) {
+        PageRequest page = PageRequest.of(0, size);
+        return logCache.query(() -> Collections.unmodifiableList(action == null
+                ? logRepository.findSummariesBetween(from, to, page)
+                : logRepository.findSummariesByActionBetween(action, from, to, page)), "summaries", action, from, to, size);
+    }
+    
+    /**
+     * 统计时间范围[from, to)内指定操作类型的日志数量
+     */
+    public long countLogs(String action, LocalDateTime from, LocalDateTime to) {
+        return logCache.<Long>query(() -> logRepository.countByActionBetween(action, from, to), "count", action, from, to);
+    }
+    
+    /**
+     * 统计时间范围[from, to)内各操作类型的日志数量
+     */
+    public List<LogActionCount> countLogsByAction(LocalDateTime from, LocalDateTime to) {
+        return logCache.query(() -> Collections.unmodifiableList(logRepository.countGroupByActionBetween(from, to)),
+                "countByAction", from, to);
+    }
+    
+    /**
+     * 按时间桶统计时间范围[from, to)内各操作类型的日志数量
+     */
+    public List<LogBucketCount> countLogsByBucket(LocalDateTime from, LocalDateTime to, long bucketSeconds) {
+        return logCache.query(() -> Collections.unmodifiableList(
+                logRepository.countGroupByActionAndBucket(from, to, bucketSeconds)), "countByBucket", from, to, bucketSeconds);
     }
     
     /**
@@ -0,0 +1,161 @@
+package com.monitor.app.service;
+
+import com.monitor.app.entity.LogRecord;
+import com.monitor.app.repository.LogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 日志异步批量写入队列
+ * 调用方将日志放入有界队列，后台写线程按批次取出并在单个事务中批量插入
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.log.write.mode", havingValue = "async")
+public class LogWriteQueue {
+
+    private final LogRepository logRepository;
+    private final LogCache logCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<LogRecord> queue;
+    private final int batchSize;
+    private final long pollTimeoutMs;
+    private final long offerTimeoutMs;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public LogWriteQueue(LogRepository logRepository,
+                         LogCache logCache,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${monitor.log.write.queue-capacity:10000}") int queueCapacity,
+                         @Value("${monitor.log.write.batch-size:50}") int batchSize,
+                         @Value("${monitor.log.write.poll-timeout-ms:200}") long pollTimeoutMs,
+                         @Value("${monitor.log.write.offer-timeout-ms:100}") long offerTimeoutMs) {
+        this.logRepository = logRepository;
+        this.logCache = logCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        this.flushTimer = Timer.builder("log.write.flush.latency")
+                               .description("日志批量写入耗时")
+                               .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("log.write.batch.size")
+                                                   .description("日志批量写入的批次大小")
+                                                   .register(meterRegistry);
+        this.writtenCounter = Counter.builder("log.write.records")
+                                     .tag("result", "written")
+                                     .description("异步写入的日志记录数")
+                                     .register(meterRegistry);
+        this.failedCounter = Counter.builder("log.write.records")
+                                    .tag("result", "failed")
+                                    .description("异步写入的日志记录数")
+                                    .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("log.write.records")
+                                      .tag("result", "rejected")
+                                      .description("异步写入的日志记录数")
+                                      .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // 队列深度
+        Gauge.builder("log.write.queue.depth", queue, BlockingQueue::size)
+             .description("日志写入队列中等待的记录数")
+             .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 将日志放入写入队列，队列已满时最多等待offer-timeout-ms，超时则拒绝
+     */
+    public void enqueue(LogRecord logRecord) {
+        boolean accepted;
+        try {
+            accepted = queue.offer(logRecord, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("日志写入队列已满");
+        }
+    }
+
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LogRecord first = queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 关闭时由stop()负责排空剩余记录
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<LogRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> logRepository.saveAll(batch));
+            writtenCounter.increment(batch.size());
+            logCache.invalidate(batch.stream().map(LogRecord::getId).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("日志批量写入失败，丢弃 {} 条记录", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(batch.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
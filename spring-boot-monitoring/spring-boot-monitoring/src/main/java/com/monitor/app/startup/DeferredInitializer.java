@@ -0,0 +1,108 @@
+package com.monitor.app.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非关键初始化任务（示例数据、可选指标等）
+ * monitor.startup.defer-init=false时在注册时立即执行，与原来的启动行为一致；
+ * 为true时（faststart profile）在应用就绪后由后台线程deferred-init依次执行，不计入启动耗时
+ */
+@Slf4j
+@Component
+public class DeferredInitializer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean deferred;
+    private final List<Task> pending = new ArrayList<>();
+    private final Map<String, Object> completed = new LinkedHashMap<>();
+    private boolean ready;
+
+    public DeferredInitializer(MeterRegistry meterRegistry,
+                               @Value("${monitor.startup.defer-init:false}") boolean deferred) {
+        this.meterRegistry = meterRegistry;
+        this.deferred = deferred;
+    }
+
+    /**
+     * 注册初始化任务，未开启延迟或应用已就绪时在当前线程执行
+     */
+    public void submit(String name, Runnable task) {
+        synchronized (this) {
+            if (deferred && !ready) {
+                pending.add(new Task(name, task));
+                return;
+            }
+        }
+        run(new Task(name, task));
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        List<Task> tasks;
+        synchronized (this) {
+            ready = true;
+            tasks = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(() -> tasks.forEach(this::run), "deferred-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(Task task) {
+        long start = System.nanoTime();
+        try {
+            task.runnable.run();
+        } catch (RuntimeException e) {
+            log.error("初始化任务 {} 执行失败", task.name, e);
+        }
+        long nanos = System.nanoTime() - start;
+        TimeGauge.builder("application.startup.deferred", nanos, TimeUnit.NANOSECONDS, Long::doubleValue)
+                 .description("非关键初始化任务的耗时")
+                 .tag("task", task.name)
+                 .tag("deferred", String.valueOf(deferred))
+                 .strongReference(true)
+                 .register(meterRegistry);
+        synchronized (completed) {
+            completed.put(task.name, Math.round(nanos / 10_000.0) / 100.0);
+        }
+    }
+
+    /**
+     * 已完成任务的耗时（毫秒）
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("deferred", deferred);
+        synchronized (completed) {
+            report.put("completedMs", new LinkedHashMap<>(completed));
+        }
+        return report;
+    }
+
+    private static final class Task {
+
+        private final String name;
+        private final Runnable runnable;
+
+        Task(String name, Runnable runnable) {
+            this.name = name;
+            this.runnable = runnable;
+        }
+    }
+}
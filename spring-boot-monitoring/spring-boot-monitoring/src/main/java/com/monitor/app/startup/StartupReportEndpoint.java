@@ -0,0 +1,31 @@
+package com.monitor.app.startup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/startupreport：启动各阶段耗时、最慢的Bean和延迟初始化任务的耗时
+ */
+@Component
+@Endpoint(id = "startupreport")
+public class StartupReportEndpoint {
+
+    private final StartupTimeline startupTimeline;
+    private final DeferredInitializer deferredInitializer;
+
+    public StartupReportEndpoint(StartupTimeline startupTimeline, DeferredInitializer deferredInitializer) {
+        this.startupTimeline = startupTimeline;
+        this.deferredInitializer = deferredInitializer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>(startupTimeline.getReport());
+        report.put("deferredInit", deferredInitializer.getReport());
+        return report;
+    }
+}
@@ -0,0 +1,154 @@
+package com.monitor.app.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动耗时汇总
+ * 应用就绪时读取BufferingApplicationStartup记录的启动步骤（不清空缓冲区，/actuator/startup仍可使用），
+ * 按步骤名称汇总各阶段耗时，并按自身耗时（扣除其依赖Bean的初始化时间）找出最慢的Bean，注册为指标并供启动报告使用
+ */
+@Slf4j
+@Component
+public class StartupTimeline {
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    private final ApplicationStartup applicationStartup;
+    private final MeterRegistry meterRegistry;
+    private final int topBeans;
+    private volatile Map<String, Object> report = Collections.emptyMap();
+
+    public StartupTimeline(ApplicationStartup applicationStartup, MeterRegistry meterRegistry,
+                           @Value("${monitor.startup.top-beans:20}") int topBeans) {
+        this.applicationStartup = applicationStartup;
+        this.meterRegistry = meterRegistry;
+        this.topBeans = topBeans;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            log.info("未启用BufferingApplicationStartup，不生成启动耗时报告");
+            return;
+        }
+        List<TimelineEvent> events = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline().getEvents();
+
+        Map<Long, Long> childNanos = new HashMap<>();
+        Map<String, long[]> phases = new TreeMap<>();
+        for (TimelineEvent timelineEvent : events) {
+            StartupStep step = timelineEvent.getStartupStep();
+            long nanos = timelineEvent.getDuration().toNanos();
+            if (step.getParentId() != null) {
+                childNanos.merge(step.getParentId(), nanos, Long::sum);
+            }
+            long[] phase = phases.computeIfAbsent(step.getName(), name -> new long[2]);
+            phase[0]++;
+            phase[1] += nanos;
+        }
+
+        List<BeanTiming> beans = new ArrayList<>();
+        for (TimelineEvent timelineEvent : events) {
+            StartupStep step = timelineEvent.getStartupStep();
+            if (!BEAN_INSTANTIATE.equals(step.getName())) {
+                continue;
+            }
+            long total = timelineEvent.getDuration().toNanos();
+            long self = Math.max(0, total - childNanos.getOrDefault(step.getId(), 0L));
+            beans.add(new BeanTiming(beanName(step), total, self));
+        }
+        beans.sort(Comparator.comparingLong((BeanTiming bean) -> bean.selfNanos).reversed());
+        List<BeanTiming> slowest = beans.subList(0, Math.min(topBeans, beans.size()));
+
+        phases.forEach((name, phase) -> TimeGauge.builder("application.startup.phase", phase, TimeUnit.NANOSECONDS, p -> p[1])
+                                                 .description("启动步骤累计耗时（同名步骤合计，嵌套步骤的耗时包含在父步骤中）")
+                                                 .tag("phase", name)
+                                                 // 耗时只保存在本方法的局部对象中，必须强引用，否则GC后读数为NaN
+                                                 .strongReference(true)
+                                                 .register(meterRegistry));
+        for (BeanTiming bean : slowest) {
+            TimeGauge.builder("application.startup.bean", bean, TimeUnit.NANOSECONDS, b -> b.selfNanos)
+                     .description("初始化最慢的Bean的自身耗时（不含其依赖Bean）")
+                     .tag("bean", bean.name)
+                     .strongReference(true)
+                     .register(meterRegistry);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("readyMs", event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : null);
+        result.put("steps", events.size());
+        result.put("beans", beans.size());
+        Map<String, Object> phaseReport = new LinkedHashMap<>();
+        phases.entrySet().stream()
+              .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed())
+              .forEach(entry -> phaseReport.put(entry.getKey(), timing(entry.getValue()[0], entry.getValue()[1])));
+        result.put("phases", phaseReport);
+        List<Map<String, Object>> beanReport = new ArrayList<>();
+        for (BeanTiming bean : slowest) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("bean", bean.name);
+            entry.put("selfMs", toMillis(bean.selfNanos));
+            entry.put("totalMs", toMillis(bean.totalNanos));
+            beanReport.add(entry);
+        }
+        result.put("slowestBeans", beanReport);
+        this.report = Collections.unmodifiableMap(result);
+        log.info("启动耗时 {}ms，共 {} 个启动步骤，{} 个Bean", result.get("readyMs"), events.size(), beans.size());
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "unknown";
+    }
+
+    private static Map<String, Object> timing(long count, long nanos) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("count", count);
+        entry.put("totalMs", toMillis(nanos));
+        return entry;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class BeanTiming {
+
+        private final String name;
+        private final long totalNanos;
+        private final long selfNanos;
+
+        BeanTiming(String name, long totalNanos, long selfNanos) {
+            this.name = name;
+            this.totalNanos = totalNanos;
+            this.selfNanos = selfNanos;
+        }
+    }
+}
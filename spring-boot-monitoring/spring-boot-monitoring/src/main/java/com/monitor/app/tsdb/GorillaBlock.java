@@ -0,0 +1,214 @@
+package com.monitor.app.tsdb;
+
+import java.util.Arrays;
+
+/**
+ * Gorilla压缩的时序数据块
+ * 时间戳按二阶差分（delta-of-delta）变长编码，数值与上一个值异或后只保存有效位；
+ * 固定间隔采样且数值变化不大时每个样本只占几个比特。块写满后trim为只读，非线程安全
+ */
+class GorillaBlock {
+
+    private long[] words = new long[16];
+    private int bitCount;
+    private int count;
+
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastValueBits;
+    private int lastLeading = -1;
+    private int lastTrailing;
+
+    /**
+     * 追加一个样本，时间戳必须递增；二阶差分超出32位时返回false，由调用方另开新块
+     */
+    boolean append(long timestamp, double value) {
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            writeBits(timestamp, 64);
+            writeBits(valueBits, 64);
+            firstTimestamp = timestamp;
+            lastTimestamp = timestamp;
+            lastValueBits = valueBits;
+            count = 1;
+            return true;
+        }
+
+        long delta = timestamp - lastTimestamp;
+        long deltaOfDelta = delta - lastDelta;
+        if (delta <= 0 || deltaOfDelta < Integer.MIN_VALUE || deltaOfDelta > Integer.MAX_VALUE) {
+            return false;
+        }
+        writeTimestamp(deltaOfDelta);
+        writeValue(valueBits ^ lastValueBits);
+
+        lastDelta = delta;
+        lastTimestamp = timestamp;
+        lastValueBits = valueBits;
+        count++;
+        return true;
+    }
+
+    private void writeTimestamp(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta + 63, 7);
+        } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta + 255, 9);
+        } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta + 2047, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(deltaOfDelta, 32);
+        }
+    }
+
+    private void writeValue(long xor) {
+        if (xor == 0) {
+            writeBits(0b0, 1);
+            return;
+        }
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+            // 有效位落在上一个值的窗口内，沿用窗口
+            writeBits(0b10, 2);
+            writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            writeBits(0b11, 2);
+            writeBits(leading, 5);
+            writeBits(meaningful - 1, 6);
+            writeBits(xor >>> trailing, meaningful);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    private void writeBits(long value, int bits) {
+        int required = (bitCount + bits + 63) >>> 6;
+        if (required > words.length) {
+            words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+        }
+        while (bits > 0) {
+            int free = 64 - (bitCount & 63);
+            int n = Math.min(free, bits);
+            long chunk = (value >>> (bits - n)) & mask(n);
+            words[bitCount >>> 6] |= chunk << (free - n);
+            bitCount += n;
+            bits -= n;
+        }
+    }
+
+    /**
+     * 块写满后释放多余的容量
+     */
+    void trim() {
+        words = Arrays.copyOf(words, (bitCount + 63) >>> 6);
+    }
+
+    /**
+     * 当前占用的内存（数据数组容量）
+     */
+    int sizeBytes() {
+        return words.length * 8;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * 解码[from, to]范围内的样本
+     */
+    void decode(long from, long to, PointConsumer consumer) {
+        if (count == 0 || lastTimestamp < from || firstTimestamp > to) {
+            return;
+        }
+        Reader reader = new Reader();
+        long timestamp = reader.read(64);
+        long valueBits = reader.read(64);
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; ; i++) {
+            if (timestamp > to) {
+                return;
+            }
+            if (timestamp >= from) {
+                consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+            }
+            if (i == count - 1) {
+                return;
+            }
+
+            delta += reader.readDeltaOfDelta();
+            timestamp += delta;
+
+            if (reader.read(1) == 1) {
+                if (reader.read(1) == 1) {
+                    leading = (int) reader.read(5);
+                    int meaningful = (int) reader.read(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                valueBits ^= reader.read(64 - leading - trailing) << trailing;
+            }
+        }
+    }
+
+    private static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    interface PointConsumer {
+
+        void accept(long timestamp, double value);
+    }
+
+    private final class Reader {
+
+        private int position;
+
+        long read(int bits) {
+            long result = 0;
+            while (bits > 0) {
+                int free = 64 - (position & 63);
+                int n = Math.min(free, bits);
+                long chunk = (words[position >>> 6] >>> (free - n)) & mask(n);
+                result = n == 64 ? chunk : (result << n) | chunk;
+                position += n;
+                bits -= n;
+            }
+            return result;
+        }
+
+        long readDeltaOfDelta() {
+            if (read(1) == 0) {
+                return 0;
+            }
+            if (read(1) == 0) {
+                return read(7) - 63;
+            }
+            if (read(1) == 0) {
+                return read(9) - 255;
+            }
+            if (read(1) == 0) {
+                return read(12) - 2047;
+            }
+            return (int) read(32);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.monitor.app.tsdb;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内时序存储
+ * 按固定间隔把MeterRegistry中所有指标的每个统计量写入Gorilla压缩块，Prometheus不可用时仍能在本地查询历史数据。
+ * 总内存超过预算时按关闭顺序淘汰最旧的数据块；连续stale-snapshots次采集都没有出现的序列（对应的指标已从注册表移除）
+ * 连同全部数据块一起删除，释放内存和序列名额
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.tsdb.enabled", havingValue = "true")
+public class TimeSeriesStore {
+
+    // 每个序列除数据块外的固定开销估算（键、标签、对象头等）
+    private static final int SERIES_OVERHEAD_BYTES = 256;
+
+    private final MeterRegistry meterRegistry;
+    private final long memoryBudgetBytes;
+    private final int blockSamples;
+    private final int maxSeries;
+    private final int staleSnapshots;
+
+    private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+    // 已关闭的数据块，按关闭时间排列，淘汰时从队首开始
+    private final ConcurrentLinkedQueue<ClosedBlock> closedBlocks = new ConcurrentLinkedQueue<>();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong storedSamples = new AtomicLong();
+    private final Counter evictedBlocks;
+    private final Counter droppedSeries;
+    private final Counter removedSeries;
+    // 采集序号，只在snapshot()中递增
+    private long snapshotCount;
+
+    public TimeSeriesStore(MeterRegistry meterRegistry,
+                           @Value("${monitor.tsdb.memory-budget-mb:16}") long memoryBudgetMb,
+                           @Value("${monitor.tsdb.block-samples:360}") int blockSamples,
+                           @Value("${monitor.tsdb.max-series:5000}") int maxSeries,
+                           @Value("${monitor.tsdb.stale-snapshots:30}") int staleSnapshots) {
+        this.meterRegistry = meterRegistry;
+        this.memoryBudgetBytes = memoryBudgetMb * 1024 * 1024;
+        this.blockSamples = blockSamples;
+        this.maxSeries = maxSeries;
+        this.staleSnapshots = Math.max(1, staleSnapshots);
+
+        Gauge.builder("tsdb.series", series, Map::size)
+             .description("本地时序存储中的序列数")
+             .register(meterRegistry);
+        Gauge.builder("tsdb.memory.used", storedBytes, AtomicLong::get)
+             .description("本地时序存储占用的内存")
+             .baseUnit("bytes")
+             .register(meterRegistry);
+        Gauge.builder("tsdb.samples", storedSamples, AtomicLong::get)
+             .description("本地时序存储中保存的样本数")
+             .register(meterRegistry);
+        this.evictedBlocks = Counter.builder("tsdb.blocks.evicted")
+                                    .description("因超出内存预算被淘汰的数据块数")
+                                    .register(meterRegistry);
+        this.droppedSeries = Counter.builder("tsdb.series.dropped")
+                                    .description("因序列数达到上限未能记录的样本数")
+                                    .register(meterRegistry);
+        this.removedSeries = Counter.builder("tsdb.series.removed")
+                                    .description("因长时间没有出现而删除的序列数")
+                                    .register(meterRegistry);
+    }
+
+    @Scheduled(fixedRateString = "${monitor.tsdb.interval-ms:10000}")
+    public void snapshot() {
+        long timestamp = System.currentTimeMillis();
+        long current = ++snapshotCount;
+        for (Meter meter : meterRegistry.getMeters()) {
+            Meter.Id id = meter.getId();
+            for (Measurement measurement : meter.measure()) {
+                String statistic = measurement.getStatistic().getTagValueRepresentation();
+                Series target = series(id, statistic);
+                if (target == null) {
+                    droppedSeries.increment();
+                    continue;
+                }
+                target.lastSnapshot = current;
+                target.append(timestamp, measurement.getValue());
+            }
+        }
+        removeStale(current);
+        evictIfNeeded();
+    }
+
+    private Series series(Meter.Id id, String statistic) {
+        String key = seriesKey(id, statistic);
+        Series existing = series.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (series.size() >= maxSeries) {
+            return null;
+        }
+        return series.computeIfAbsent(key, k -> {
+            storedBytes.addAndGet(SERIES_OVERHEAD_BYTES);
+            return new Series(k, id, statistic);
+        });
+    }
+
+    private void removeStale(long current) {
+        Set<Series> removed = new HashSet<>();
+        for (Series candidate : series.values()) {
+            if (current - candidate.lastSnapshot >= staleSnapshots && series.remove(candidate.key, candidate)) {
+                candidate.release();
+                removed.add(candidate);
+            }
+        }
+        if (!removed.isEmpty()) {
+            closedBlocks.removeIf(closed -> removed.contains(closed.series));
+            removedSeries.increment(removed.size());
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (storedBytes.get() > memoryBudgetBytes) {
+            ClosedBlock oldest = closedBlocks.poll();
+            if (oldest == null) {
+                log.warn("本地时序存储的未关闭数据块已超出内存预算 {} 字节", memoryBudgetBytes);
+                return;
+            }
+            oldest.series.evict(oldest.block);
+            evictedBlocks.increment();
+        }
+    }
+
+    /**
+     * 查询名称匹配、且包含全部指定标签的序列在[from, to]范围内的样本
+     */
+    public List<Map<String, Object>> query(String name, Map<String, String> tags, long from, long to) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Series candidate : series.values()) {
+            if (!candidate.name.equals(name) || !candidate.matches(tags)) {
+                continue;
+            }
+            List<Object[]> points = candidate.read(from, to);
+            if (points.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", candidate.name);
+            item.put("tags", candidate.tags);
+            item.put("points", points);
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 列出序列，name为空时返回全部
+     */
+    public List<Map<String, Object>> listSeries(String name) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Series candidate : series.values()) {
+            if (name != null && !candidate.name.equals(name)) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", candidate.name);
+            item.put("tags", candidate.tags);
+            result.add(item);
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        long bytes = storedBytes.get();
+        long samples = storedSamples.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("series", series.size());
+        stats.put("samples", samples);
+        stats.put("memoryBytes", bytes);
+        stats.put("memoryBudgetBytes", memoryBudgetBytes);
+        stats.put("bytesPerSample", samples > 0 ? (double) bytes / samples : 0.0);
+        stats.put("evictedBlocks", (long) evictedBlocks.count());
+        return stats;
+    }
+
+    private static String seriesKey(Meter.Id id, String statistic) {
+        StringBuilder key = new StringBuilder(id.getName()).append('{');
+        for (Tag tag : id.getTagsAsIterable()) {
+            key.append(tag.getKey()).append('=').append(tag.getValue()).append(',');
+        }
+        return key.append("statistic=").append(statistic).append('}').toString();
+    }
+
+    /**
+     * 单个序列：已关闭的只读块加上一个正在写入的块
+     */
+    private final class Series {
+
+        private final String key;
+        private final String name;
+        private final Map<String, String> tags;
+        private final Deque<GorillaBlock> blocks = new ArrayDeque<>();
+        private GorillaBlock open = new GorillaBlock();
+        // 最近一次出现在采集中的序号，只在snapshot()中读写
+        private long lastSnapshot;
+
+        Series(String key, Meter.Id id, String statistic) {
+            this.key = key;
+            this.name = id.getName();
+            Map<String, String> map = new TreeMap<>();
+            for (Tag tag : id.getTagsAsIterable()) {
+                map.put(tag.getKey(), tag.getValue());
+            }
+            map.put("statistic", statistic);
+            this.tags = Collections.unmodifiableMap(map);
+            storedBytes.addAndGet(open.sizeBytes());
+        }
+
+        synchronized void append(long timestamp, double value) {
+            int before = open.sizeBytes();
+            if (open.getCount() >= blockSamples || !open.append(timestamp, value)) {
+                close();
+                before = open.sizeBytes();
+                if (!open.append(timestamp, value)) {
+                    return;
+                }
+            }
+            storedBytes.addAndGet(open.sizeBytes() - before);
+            storedSamples.incrementAndGet();
+        }
+
+        private void close() {
+            GorillaBlock closed = open;
+            int before = closed.sizeBytes();
+            closed.trim();
+            storedBytes.addAndGet(closed.sizeBytes() - before);
+            blocks.addLast(closed);
+            closedBlocks.add(new ClosedBlock(this, closed));
+            open = new GorillaBlock();
+            storedBytes.addAndGet(open.sizeBytes());
+        }
+
+        synchronized void evict(GorillaBlock block) {
+            if (blocks.remove(block)) {
+                storedBytes.addAndGet(-block.sizeBytes());
+                storedSamples.addAndGet(-block.getCount());
+            }
+        }
+
+        /**
+         * 删除序列时归还全部数据块和固定开销
+         */
+        synchronized void release() {
+            for (GorillaBlock block : blocks) {
+                storedBytes.addAndGet(-block.sizeBytes());
+                storedSamples.addAndGet(-block.getCount());
+            }
+            blocks.clear();
+            storedBytes.addAndGet(-open.sizeBytes() - SERIES_OVERHEAD_BYTES);
+            storedSamples.addAndGet(-open.getCount());
+            open = new GorillaBlock();
+        }
+
+        synchronized List<Object[]> read(long from, long to) {
+            List<Object[]> points = new ArrayList<>();
+            for (GorillaBlock block : blocks) {
+                block.decode(from, to, (timestamp, value) -> points.add(new Object[]{timestamp, value}));
+            }
+            open.decode(from, to, (timestamp, value) -> points.add(new Object[]{timestamp, value}));
+            return points;
+        }
+
+        boolean matches(Map<String, String> filter) {
+            for (Map.Entry<String, String> entry : filter.entrySet()) {
+                if (!entry.getValue().equals(tags.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class ClosedBlock {
+
+        private final Series series;
+        private final GorillaBlock block;
+
+        ClosedBlock(Series series, GorillaBlock block) {
+            this.series = series;
+            this.block = block;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.monitor.app.export;
+
+import org.junit.jupiter.api.Test;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RemoteWriteCodecTest {
+
+    @Test
+    void encodesWriteRequestWireFormat() throws IOException {
+        byte[] body = RemoteWriteCodec.encode(Collections.singletonList(
+                new RemoteWriteSeries(Collections.singletonMap("__name__", "up"), 1.0, 1000)));
+
+        byte[] expected = {
+                0x0A, 0x1E,                                     // WriteRequest.timeseries
+                0x0A, 0x0E,                                     // TimeSeries.labels
+                0x0A, 0x08, '_', '_', 'n', 'a', 'm', 'e', '_', '_',
+                0x12, 0x02, 'u', 'p',
+                0x12, 0x0C,                                     // TimeSeries.samples
+                0x09, 0, 0, 0, 0, 0, 0, (byte) 0xF0, 0x3F,      // value=1.0
+                0x10, (byte) 0xE8, 0x07                         // timestamp=1000
+        };
+        assertThat(Snappy.uncompress(body)).isEqualTo(expected);
+    }
+
+    @Test
+    void roundTripsRandomSeries() throws IOException {
+        Random random = new Random(42);
+        List<RemoteWriteSeries> series = new ArrayList<>();
+        double[] specials = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, Double.MIN_VALUE};
+        for (int i = 0; i < 500; i++) {
+            Map<String, String> labels = new TreeMap<>();
+            labels.put("__name__", "metric_" + random.nextInt(20));
+            for (int j = random.nextInt(5); j > 0; j--) {
+                labels.put("label_" + j, randomValue(random));
+            }
+            double value = i < specials.length ? specials[i] : random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+            long timestamp = random.nextBoolean() ? random.nextLong() : System.currentTimeMillis() + random.nextInt();
+            series.add(new RemoteWriteSeries(labels, value, timestamp));
+        }
+
+        List<RemoteWriteSeries> decoded = RemoteWriteCodec.decode(RemoteWriteCodec.encode(series));
+
+        assertThat(decoded).hasSameSizeAs(series);
+        for (int i = 0; i < series.size(); i++) {
+            RemoteWriteSeries original = series.get(i);
+            RemoteWriteSeries actual = decoded.get(i);
+            assertThat(actual.getLabels()).containsExactlyEntriesOf(original.getLabels());
+            assertThat(Double.doubleToRawLongBits(actual.getValue())).isEqualTo(Double.doubleToRawLongBits(original.getValue()));
+            assertThat(actual.getTimestamp()).isEqualTo(original.getTimestamp());
+        }
+    }
+
+    @Test
+    void encodesEmptyRequest() throws IOException {
+        assertThat(RemoteWriteCodec.decode(RemoteWriteCodec.encode(Collections.emptyList()))).isEmpty();
+    }
+
+    @Test
+    void rejectsTruncatedRequest() throws IOException {
+        byte[] raw = Snappy.uncompress(RemoteWriteCodec.encode(Collections.singletonList(
+                new RemoteWriteSeries(Collections.singletonMap("__name__", "up"), 1.0, 1000))));
+        byte[] truncated = Snappy.compress(Arrays.copyOf(raw, raw.length - 3));
+
+        assertThatThrownBy(() -> RemoteWriteCodec.decode(truncated)).isInstanceOf(IOException.class);
+    }
+
+    private static String randomValue(Random random) {
+        StringBuilder value = new StringBuilder();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            // 覆盖ASCII、中文和需要代理对的字符
+            switch (random.nextInt(3)) {
+                case 0:
+                    value.append((char) ('a' + random.nextInt(26)));
+                    break;
+                case 1:
+                    value.append((char) (0x4E00 + random.nextInt(0x5000)));
+                    break;
+                default:
+                    value.appendCodePoint(0x1F600 + random.nextInt(0x40));
+            }
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.monitor.app.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsListedGzip() {
+        assertThat(AcceptEncoding.prefersGzip("gzip")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("GZIP")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("x-gzip")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("deflate, gzip;q=0.8, br")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("gzip ; Q=0.5")).isTrue();
+    }
+
+    @Test
+    void treatsZeroQualityAsRefusal() {
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=0")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=0.000")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("*, gzip;q=0")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("*;q=0")).isFalse();
+    }
+
+    @Test
+    void honoursIdentityAndWildcard() {
+        assertThat(AcceptEncoding.prefersGzip("*")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("br, *;q=0.5")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("identity")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=0.5, identity")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=0.5, identity;q=0")).isTrue();
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=0.5, *;q=0.8")).isFalse();
+    }
+
+    @Test
+    void ignoresMissingAndMalformedHeaders() {
+        assertThat(AcceptEncoding.prefersGzip(null)).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("deflate, br")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=abc")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip("gzip;q=2, deflate")).isFalse();
+        assertThat(AcceptEncoding.prefersGzip(" , gzip")).isTrue();
+    }
+}
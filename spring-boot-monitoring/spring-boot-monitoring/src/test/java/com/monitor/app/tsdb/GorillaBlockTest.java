@@ -0,0 +1,160 @@
+package com.monitor.app.tsdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GorillaBlockTest {
+
+    private static final double[] SPECIAL_VALUES = {
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.0, -0.0,
+            Double.MIN_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, Double.longBitsToDouble(0x7FF8_0000_0000_0001L)
+    };
+
+    @Test
+    void roundTripsRandomSequences() {
+        Random random = new Random(7);
+        for (int run = 0; run < 200; run++) {
+            List<long[]> points = new ArrayList<>();
+            GorillaBlock block = new GorillaBlock();
+            long timestamp = random.nextLong() >> 20;
+            double value = random.nextGaussian();
+            int size = 1 + random.nextInt(1000);
+            for (int i = 0; i < size; i++) {
+                timestamp += nextDelta(random);
+                value = nextValue(random, value);
+                if (block.append(timestamp, value)) {
+                    points.add(new long[]{timestamp, Double.doubleToRawLongBits(value)});
+                }
+            }
+            if (random.nextBoolean()) {
+                block.trim();
+            }
+
+            assertThat(block.getCount()).isEqualTo(points.size());
+            assertThat(block.getFirstTimestamp()).isEqualTo(points.get(0)[0]);
+            assertThat(block.getLastTimestamp()).isEqualTo(points.get(points.size() - 1)[0]);
+            assertThat(decode(block, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(toStrings(points));
+        }
+    }
+
+    @Test
+    void decodesOnlyRequestedRange() {
+        GorillaBlock block = new GorillaBlock();
+        List<long[]> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            long timestamp = 1_000_000 + i * 10_000L + (i % 3) * 7;
+            block.append(timestamp, i * 1.5);
+            points.add(new long[]{timestamp, Double.doubleToRawLongBits(i * 1.5)});
+        }
+        long from = points.get(20)[0];
+        long to = points.get(40)[0];
+
+        assertThat(decode(block, from, to)).containsExactlyElementsOf(toStrings(points.subList(20, 41)));
+        assertThat(decode(block, from + 1, to - 1)).containsExactlyElementsOf(toStrings(points.subList(21, 40)));
+        assertThat(decode(block, 0, points.get(0)[0] - 1)).isEmpty();
+        assertThat(decode(block, points.get(99)[0] + 1, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void rejectsNonIncreasingTimestampsWithoutCorruptingBlock() {
+        GorillaBlock block = new GorillaBlock();
+        assertThat(block.append(1000, 1.0)).isTrue();
+        assertThat(block.append(2000, 2.0)).isTrue();
+
+        assertThat(block.append(2000, 3.0)).isFalse();
+        assertThat(block.append(1500, 3.0)).isFalse();
+        assertThat(block.append(3000, 3.0)).isTrue();
+
+        assertThat(block.getCount()).isEqualTo(3);
+        assertThat(decode(block, Long.MIN_VALUE, Long.MAX_VALUE))
+                .containsExactly(point(1000, 1.0), point(2000, 2.0), point(3000, 3.0));
+    }
+
+    @Test
+    void handlesDeltaOfDeltaAtEncodingBoundaries() {
+        long[] deltaOfDeltas = {0, -63, 64, -64, 65, -255, 256, -256, 257, -2047, 2048, -2048, 2049,
+                Integer.MAX_VALUE, Integer.MIN_VALUE + 1_000_000_000L};
+        GorillaBlock block = new GorillaBlock();
+        List<long[]> points = new ArrayList<>();
+        long timestamp = 0;
+        long delta = 10_000;
+        block.append(timestamp, 0);
+        points.add(new long[]{timestamp, Double.doubleToRawLongBits(0)});
+        for (long deltaOfDelta : deltaOfDeltas) {
+            delta += deltaOfDelta;
+            timestamp += delta;
+            assertThat(block.append(timestamp, deltaOfDelta)).isTrue();
+            points.add(new long[]{timestamp, Double.doubleToRawLongBits(deltaOfDelta)});
+        }
+
+        assertThat(decode(block, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactlyElementsOf(toStrings(points));
+        assertThat(block.append(timestamp + delta + Integer.MAX_VALUE + 1L, 0)).isFalse();
+    }
+
+    @Test
+    void compressesRegularSeries() {
+        GorillaBlock block = new GorillaBlock();
+        for (int i = 0; i < 1000; i++) {
+            block.append(1_700_000_000_000L + i * 10_000L, 42.0);
+        }
+        block.trim();
+
+        // 固定间隔、数值不变时每个样本2比特，另加首个样本的16字节
+        assertThat(block.sizeBytes()).isLessThanOrEqualTo(16 + 1000 * 2 / 8 + 8);
+    }
+
+    private static long nextDelta(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return 10_000;
+            case 1:
+                return 10_000 + random.nextInt(200) - 100;
+            case 2:
+                return 1 + random.nextInt(5_000_000);
+            default:
+                // 偶尔出现长时间停顿
+                return 1 + (random.nextLong() >>> 34);
+        }
+    }
+
+    private static double nextValue(Random random, double previous) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return previous;
+            case 1:
+                return SPECIAL_VALUES[random.nextInt(SPECIAL_VALUES.length)];
+            case 2:
+                return previous + 1;
+            case 3:
+                return Math.round(random.nextDouble() * 1000) / 10.0;
+            case 4:
+                return Double.longBitsToDouble(random.nextLong());
+            default:
+                return random.nextGaussian() * 1e6;
+        }
+    }
+
+    private static List<String> decode(GorillaBlock block, long from, long to) {
+        List<String> result = new ArrayList<>();
+        block.decode(from, to, (timestamp, value) -> result.add(point(timestamp, value)));
+        return result;
+    }
+
+    private static List<String> toStrings(List<long[]> points) {
+        List<String> result = new ArrayList<>();
+        for (long[] point : points) {
+            result.add(point[0] + "=" + Long.toHexString(point[1]));
+        }
+        return result;
+    }
+
+    private static String point(long timestamp, double value) {
+        // 比较原始位，NaN的不同表示和-0.0也要一致
+        return timestamp + "=" + Long.toHexString(Double.doubleToRawLongBits(value));
+    }
+}
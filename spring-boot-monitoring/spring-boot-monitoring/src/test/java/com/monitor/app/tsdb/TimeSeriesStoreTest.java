@@ -0,0 +1,56 @@
+package com.monitor.app.tsdb;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeSeriesStoreTest {
+
+    @Test
+    void removesSeriesOfRemovedMetersAndReleasesMemory() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TimeSeriesStore store = new TimeSeriesStore(registry, 16, 2, 5000, 3);
+        store.snapshot();
+        Object baselineSeries = store.stats().get("series");
+        long baselineBytes = (long) store.stats().get("memoryBytes");
+
+        Counter churn = registry.counter("churn", "id", "1");
+        for (int i = 0; i < 5; i++) {
+            churn.increment();
+            store.snapshot();
+        }
+        assertThat(store.listSeries("churn")).hasSize(1);
+
+        registry.remove(churn);
+        store.snapshot();
+        store.snapshot();
+        assertThat(store.listSeries("churn")).hasSize(1);
+        store.snapshot();
+
+        assertThat(store.listSeries("churn")).isEmpty();
+        assertThat(store.stats().get("series")).isEqualTo(baselineSeries);
+        // 其余序列在这段时间里继续写入，内存只能比基线多
+        assertThat((long) store.stats().get("memoryBytes")).isGreaterThanOrEqualTo(baselineBytes);
+        assertThat(registry.get("tsdb.series.removed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void freesSeriesSlotsForNewMeters() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TimeSeriesStore store = new TimeSeriesStore(registry, 16, 360, 8, 2);
+        for (int generation = 0; generation < 10; generation++) {
+            Counter counter = registry.counter("churn", "generation", String.valueOf(generation));
+            store.snapshot();
+            store.snapshot();
+            registry.remove(counter);
+        }
+        store.snapshot();
+        store.snapshot();
+
+        assertThat(registry.get("tsdb.series.dropped").counter().count()).isZero();
+        assertThat(store.listSeries("churn")).isEmpty();
+    }
+}